@@ -11,6 +11,9 @@ public class AndroidLauncher extends AndroidApplication {
 	protected void onCreate (Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
 		AndroidApplicationConfiguration config = new AndroidApplicationConfiguration();
-		initialize(new Shooting(), config);
+		Shooting game = new Shooting();
+		game.setLevel("waves.json");	// 敵はステージのファイルに従って出現させる
+		game.setThreadsForDenseModes(Runtime.getRuntime().availableProcessors());	// マルチコアの端末では、弾幕モードの更新を複数のスレッドで分担する
+		initialize(game, config);
 	}
 }
@@ -0,0 +1,123 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 衝突判定のベンチマーク
+// 以前の総当たり(全てのアクターの組み合わせを名前で判定する)とグリッドによる判定を、同じキャラクターの配置で比較する
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final String[] NAMES = { "spaceship", "enemy", "beam", "enemy_beam" };
+    private static final EntityKind[] KINDS = { EntityKind.PLAYER, EntityKind.ENEMY, EntityKind.BEAM, EntityKind.ENEMY_BEAM };
+
+    @Param({ "100", "1000", "10000" })
+    public int sprites;
+
+    private String[] names;
+    private Rectangle[] bounds;
+    private EntityKind[] kinds;
+    private SpatialHash grid;
+    private CollisionMatrix<Object> matrix;
+    private final IntArray pairs = new IntArray();
+
+    private World world;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        names = new String[sprites];
+        bounds = new Rectangle[sprites];
+        kinds = new EntityKind[sprites];
+        for (int i = 0; i < sprites; i++) {
+            int type = i == 0 ? 0 : 1 + random.nextInt(3);
+            names[i] = NAMES[type];
+            kinds[i] = KINDS[type];
+            bounds[i] = new Rectangle(random.nextFloat() * (World.WIDTH - kinds[i].width), random.nextFloat() * (World.HEIGHT - kinds[i].height),
+                    kinds[i].width, kinds[i].height);
+        }
+        grid = new SpatialHash(World.WIDTH, World.HEIGHT, 256);
+        CollisionMatrix.ContactHandler<Object> ignore = new CollisionMatrix.ContactHandler<Object>() {
+            @Override
+            public void onContact(Object a, Object b) {
+            }
+        };
+        matrix = new CollisionMatrix<Object>()
+            .on(EntityKind.PLAYER, EntityKind.ENEMY, ignore)
+            .on(EntityKind.PLAYER, EntityKind.ENEMY_BEAM, ignore)
+            .on(EntityKind.ENEMY, EntityKind.BEAM, ignore);
+
+        // 敵機と敵のビームを半分ずつ配置したシミュレーション (プレイヤーは最初の判定で爆破されるので先に済ませておく)
+        world = new World(Difficulty.NORMAL, 1);
+        for (int i = 0; i < sprites / 2; i++) {
+            world.spawnEnemy();
+            Entity enemy = world.enemies.getActive().peek();
+            enemy.x = random.nextFloat() * (World.WIDTH - enemy.width);
+            enemy.y = random.nextFloat() * (World.HEIGHT - enemy.height);
+            world.projectiles.spawn(EntityKind.ENEMY_BEAM, random.nextFloat() * World.WIDTH, random.nextFloat() * World.HEIGHT, 0, 0, 1);
+        }
+        world.checkCollisions();
+    }
+
+    // 以前のcheckCollisions()と同じ総当たりの判定
+    @Benchmark
+    public int pairwise() {
+        int hits = 0;
+        for (int i = 0; i < sprites; i++) {
+            for (int j = i + 1; j < sprites; j++) {
+                List<String> pair = Arrays.asList(names[i], names[j]);
+                if (bounds[i].overlaps(bounds[j])) {
+                    if (pair.contains("spaceship") && (pair.contains("enemy") || pair.contains("enemy_beam"))) {
+                        hits++;
+                    } else if (pair.contains("enemy") && pair.contains("beam")) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    // グリッドによる判定 (登録から組み合わせの取り出しまで)
+    @Benchmark
+    public int spatialHash() {
+        grid.clear();
+        for (int i = 0; i < sprites; i++) {
+            Rectangle b = bounds[i];
+            grid.insert(b.x, b.y, b.width, b.height, kinds[i].category, matrix.mask(kinds[i]));
+        }
+        pairs.clear();
+        grid.findPairs(pairs);
+        return pairs.size / 2;
+    }
+
+    // シミュレーションの衝突判定 (敵機とグリッド、弾ごとの範囲検索)
+    @Benchmark
+    public void worldCheckCollisions(Blackhole blackhole) {
+        world.checkCollisions();
+        blackhole.consume(world.getScore());
+    }
+}
@@ -0,0 +1,45 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Gdx;
+
+// 1フレームの描画でバッチを区切る回数(描画回数)が上限以内に収まっているかを確認する
+// ヘッドレス環境で弾幕モードのゲームをSoakTestの自動操縦(傾け・ビーム・リスタート)で一定時間プレイし、フレームごとの描画回数の最大値を調べる
+// (上限を超えたか、終わったゲームが少なくてゲームクリア/ゲームオーバーの画面を十分に描画しなかった場合は終了コード1で終了する)
+public class FlushCountCheck {
+
+    // 1フレームの描画回数の上限
+    // 背景2枚(個別のテクスチャ) + アトラス1枚 + ゲームクリア/ゲームオーバー画像とその後のボタン
+    static final int MAX_FLUSHES_PER_FRAME = 5;
+    static final int FRAMES = 60 * 120;
+    static final int MIN_GAMES = 2;         // 確認に意味があると言える、終わったゲームの数
+
+    public static void main(String[] args) {
+        HeadlessGdx.init();
+        Gdx.graphics = FixedDeltaGraphics.wrap(Gdx.graphics, 1 / 60.f);
+
+        Shooting game = new Shooting(Difficulty.BULLET_HELL, 1);
+        SoakTest.Bot bot = new SoakTest.Bot(1);
+        game.setInputSource(bot.input);
+        game.create();
+        while (game.getSnapshot() == null) game.render();  // 読み込みが終わるまで進める
+        int max = 0;
+        int maxFrame = 0;
+        int last = game.getTotalRenderCalls();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            bot.update(game.getSnapshot());
+            game.render();
+            int flushes = game.getTotalRenderCalls() - last;
+            last = game.getTotalRenderCalls();
+            if (flushes > max) {
+                max = flushes;
+                maxFrame = frame;
+            }
+        }
+        game.dispose();
+
+        boolean ok = max <= MAX_FLUSHES_PER_FRAME && bot.games >= MIN_GAMES;
+        System.out.println((ok ? "OK" : "FAILED") + ": max " + max + " flushes per frame (frame " + maxFrame
+                + ", limit " + MAX_FLUSHES_PER_FRAME + "), " + bot.games + " games played (min " + MIN_GAMES + ")");
+        System.exit(ok ? 0 : 1);
+    }
+}
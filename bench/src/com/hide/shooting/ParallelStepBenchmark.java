@@ -0,0 +1,121 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// 並列更新のスケーリングのベンチマーク
+// 大量の敵機と弾がいる状態でWorld.step()を1回進める時間を、スレッド数ごとに比べる
+//   ./gradlew bench:scaling     弾の数ごとに、threads=1に対する速度向上率を表にして出力する (main())
+//   ./gradlew bench:jmh -Pinclude=ParallelStep
+// 端末のコア数より多いスレッド数では速くならない
+// (衝突判定のグリッドに入れるのはプレイヤーと敵機だけで数百個なので、登録は並列にせず、弾ごとの検索だけを並列に行う)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelStepBenchmark {
+
+    // 計測中に状態が変わらないように、ほとんど時間を進めない (ゲームクリアや弾の時間切れを起こさない)
+    private static final float DELTA = 1e-4f;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    @Param({ "2000", "16000" })
+    public int projectiles;
+
+    private WorkerPool workers;
+    private com.hide.shooting.Level level;
+    private World world;
+    private final PlayerInput input = new PlayerInput();
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        workers = threads > 1 ? new WorkerPool(threads) : null;
+        // 敵機が新たに出現しないように、ウェーブのないステージを使う
+        FileHandle file = FileHandle.tempFile("empty_level");
+        file.writeString("{ \"paths\": [], \"waves\": [] }", false);
+        level = com.hide.shooting.Level.load(file);
+        file.delete();
+    }
+
+    // 弾と敵機を画面の上側に配置する (プレイヤーに当たってゲームオーバーにならないようにする)
+    @Setup(Level.Iteration)
+    public void setupWorld() {
+        Random random = new Random(1);
+        world = new World(Difficulty.BULLET_HELL, 1, level);
+        world.setWorkers(workers);
+        for (int i = 0; i < 256; i++) {
+            world.spawnEnemy();
+            Entity enemy = world.enemies.getActive().peek();
+            enemy.x = random.nextFloat() * (World.WIDTH - enemy.width);
+            enemy.y = 600 + random.nextFloat() * (World.HEIGHT - 600 - enemy.height);
+            enemy.fires = false;
+            enemy.descentTime = Float.MAX_VALUE;
+        }
+        for (int i = 0; i < projectiles; i++) {
+            world.projectiles.spawn(EntityKind.ENEMY_BEAM, random.nextFloat() * World.WIDTH, 600 + random.nextFloat() * (World.HEIGHT - 600),
+                    random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, Float.MAX_VALUE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (workers != null) workers.dispose();
+    }
+
+    @Benchmark
+    public int step() {
+        world.step(DELTA, input);
+        return world.projectiles.size();
+    }
+
+    // このベンチマークを実行し、弾の数ごとに1回の更新時間とthreads=1に対する速度向上率を出力する
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ParallelStepBenchmark.class.getSimpleName())
+                .build()).run();
+        // 弾の数 → スレッド数 → 1回の更新時間 (マイクロ秒)
+        TreeMap<Integer, TreeMap<Integer, Double>> scores = new TreeMap<Integer, TreeMap<Integer, Double>>();
+        for (RunResult result : results) {
+            int projectiles = Integer.parseInt(result.getParams().getParam("projectiles"));
+            int threads = Integer.parseInt(result.getParams().getParam("threads"));
+            if (!scores.containsKey(projectiles)) scores.put(projectiles, new TreeMap<Integer, Double>());
+            scores.get(projectiles).put(threads, result.getPrimaryResult().getScore());
+        }
+        System.out.printf("%n%12s %8s %12s %8s%n", "projectiles", "threads", "us/step", "speedup");
+        for (Integer projectiles : scores.keySet()) {
+            TreeMap<Integer, Double> byThreads = scores.get(projectiles);
+            Double base = byThreads.get(1);
+            for (Integer threads : byThreads.keySet()) {
+                double score = byThreads.get(threads);
+                System.out.printf("%12d %8d %12.1f %8s%n", projectiles, threads, score,
+                        base == null ? "-" : String.format("%.2fx", base / score));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+// リプレイをヘッドレスで再生し、記録時と同じ結果になるかを確認する (性能の回帰テストにも使う)
+// 描画を行わずにシミュレーションだけを最大速度で進め、スコアと状態のハッシュ値を記録と照らし合わせる
+//
+//   ReplayRunner verify [-threads N] <file>...                    リプレイを再生して確認する (N個のスレッドで更新を分担する)
+//   ReplayRunner record <file> <difficulty> <seed> <seconds> [level]  自動操縦でプレイしてリプレイを作る
+// ステージのファイルは作業ディレクトリ(assets)からのパスで指定する
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("verify")) {
+            int first = 1;
+            int threads = 1;
+            if (args[1].equals("-threads") && args.length >= 4) {
+                threads = Integer.parseInt(args[2]);
+                first = 3;
+            }
+            WorkerPool workers = threads > 1 ? new WorkerPool(threads) : null;
+            boolean ok = true;
+            for (int i = first; i < args.length; i++) {
+                ok &= verify(args[i], workers);
+            }
+            if (workers != null) workers.dispose();
+            if (!ok) System.exit(1);
+        } else if ((args.length == 5 || args.length == 6) && args[0].equals("record")) {
+            record(args[1], Difficulty.valueOf(args[2]), Long.parseLong(args[3]), Integer.parseInt(args[4]), args.length == 6 ? args[5] : "");
+        } else {
+            System.err.println("usage: ReplayRunner verify [-threads N] <file>... | record <file> <difficulty> <seed> <seconds> [level]");
+            System.exit(2);
+        }
+    }
+
+    // リプレイを再生し、全てのチェックポイントと最後のスコア・ハッシュ値が一致すればtrueを返す
+    // (workersを指定すると並列に更新する。スレッド数に関係なく記録時と同じ結果になるはず)
+    static boolean verify(String path, WorkerPool workers) throws IOException {
+        Replay replay;
+        InputStream in = new BufferedInputStream(new FileInputStream(path));
+        try {
+            replay = Replay.read(in);
+        } finally {
+            in.close();
+        }
+
+        World world = new World(replay.difficulty, replay.seed, loadLevel(replay.level));
+        world.setWorkers(workers);
+        ReplayPlayer player = new ReplayPlayer(replay);
+        PlayerInput input = new PlayerInput();
+        float tickTime = 1.f / replay.tickRate;
+        int firstMismatch = -1;
+        long start = System.nanoTime();
+        while (player.hasNext()) {
+            player.next(input);
+            world.step(tickTime, input);
+            if (firstMismatch < 0 && !player.matchesCheckpoint(world)) firstMismatch = player.getTick();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        boolean ok = firstMismatch < 0 && world.getScore() == replay.finalScore && world.stateHash() == replay.finalHash;
+        double seconds = elapsed / 1e9;
+        double played = replay.ticks * (double)tickTime;
+        System.out.printf("%s: %s threads=%d ticks=%d score=%d/%d time=%.3fs (%.0fx real time)%n",
+                path, ok ? "OK" : "MISMATCH", workers == null ? 1 : workers.threads, replay.ticks, world.getScore(), replay.finalScore,
+                seconds, played / Math.max(seconds, 1e-9));
+        if (firstMismatch >= 0) System.out.println("  first mismatching checkpoint at tick " + firstMismatch);
+        return ok;
+    }
+
+    private static Level loadLevel(String path) {
+        return path.isEmpty() ? null : Level.load(new FileHandle(path));
+    }
+
+    // 自動操縦(乱数で傾け、時々ビームを撃ち、リスタート待ちになったらリスタートする)でプレイを記録する
+    static void record(String path, Difficulty difficulty, long seed, int seconds, String level) throws IOException {
+        int tickRate = Shooting.DEFAULT_TICK_RATE;
+        World world = new World(difficulty, seed, loadLevel(level));
+        ReplayRecorder recorder = new ReplayRecorder(new Replay(difficulty, seed, level, tickRate, Shooting.REPLAY_CHECKPOINT_INTERVAL));
+        PlayerInput input = new PlayerInput();
+        Random bot = new Random(seed);
+        float tickTime = 1.f / tickRate;
+        for (int tick = 0; tick < seconds * tickRate; tick++) {
+            // 端末の傾きは0.5秒ごとに変える
+            if (tick % (tickRate / 2) == 0) {
+                input.accelX = bot.nextFloat() * 8 - 4;
+                input.accelY = bot.nextFloat() * 8 - 4;
+            }
+            if (bot.nextInt(10) == 0) input.fire++;
+            GameStatus status = world.getStatus();
+            input.touched = status == GameStatus.WAIT_TO_RESTART_FROM_LOSE;
+            input.restart = status == GameStatus.WAIT_TO_RESTART_FROM_WIN;
+            recorder.record(input);
+            world.step(tickTime, input);
+            recorder.checkpoint(world);
+        }
+        recorder.finish(world);
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(path));
+        try {
+            recorder.replay.write(out);
+        } finally {
+            out.close();
+        }
+        System.out.printf("%s: ticks=%d score=%d size=%d bytes%n", path, recorder.replay.ticks, world.getScore(), recorder.replay.inputSize);
+    }
+}
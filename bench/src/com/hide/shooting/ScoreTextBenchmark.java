@@ -0,0 +1,77 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// スコア表示の更新のベンチマーク
+// 以前の処理(敵機を爆破するたびに文字列を作り直し、描画のたびに文字の配置を計算する)とHudTextを比較する
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreTextBenchmark {
+
+    private BitmapFont font;
+    private final GlyphLayout layout = new GlyphLayout();
+    private HudText hudText;
+    private int score;
+
+    @Setup
+    public void setup() {
+        HeadlessGdx.init();
+        font = new BitmapFont(Gdx.files.internal("88zen.fnt"));
+        hudText = new HudText(font);
+    }
+
+    @TearDown
+    public void tearDown() {
+        font.dispose();
+    }
+
+    // スコアが変わった時の文字列の作り直し
+    @Benchmark
+    public String concatenate() {
+        score += 10;
+        return "スコア: " + score;
+    }
+
+    // スコアが変わった時の文字列の作り直しと、描画時の文字の配置の計算
+    @Benchmark
+    public GlyphLayout concatenateAndLayout() {
+        score += 10;
+        layout.setText(font, "スコア: " + score);
+        return layout;
+    }
+
+    // HudTextでのスコアの更新 (文字列を生成せず、変わった時だけ配置を計算する)
+    @Benchmark
+    public HudText hudText() {
+        score += 10;
+        hudText.setText(Shooting.SCORE_LABEL, score);
+        return hudText;
+    }
+
+    // スコアが変わらないフレームでのHudTextの更新
+    @Benchmark
+    public HudText hudTextUnchanged() {
+        hudText.setText(Shooting.SCORE_LABEL, score);
+        return hudText;
+    }
+}
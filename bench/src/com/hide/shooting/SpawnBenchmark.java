@@ -0,0 +1,60 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Array;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// キャラクターの生成と削除のベンチマーク
+// プールから取り出して返却するまでの時間と、1回あたりのメモリ確保量(-prof gc)を計測する
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+
+    @Param({ "NORMAL", "BULLET_HELL" })
+    public Difficulty difficulty;
+
+    private World world;
+    private Entity shooter;
+
+    @Setup
+    public void setup() {
+        world = new World(difficulty, 1);
+        world.spawnEnemy();
+        shooter = world.enemies.getActive().peek();
+    }
+
+    // 敵機を発生させてすぐに削除する
+    @Benchmark
+    public int spawnEnemy() {
+        world.spawnEnemy();
+        Array<Entity> enemies = world.enemies.getActive();
+        Entity enemy = enemies.peek();
+        world.enemies.free(enemy);
+        return enemies.size;
+    }
+
+    // 敵機にビームを撃たせて、撃った弾を全て削除する
+    @Benchmark
+    public int spawnEnemyBeam() {
+        world.spawnEnemyBeam(shooter);
+        int size = world.projectiles.size();
+        world.projectiles.removeAll(EntityKind.ENEMY_BEAM);
+        return size;
+    }
+}
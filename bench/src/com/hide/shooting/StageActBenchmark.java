@@ -0,0 +1,65 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
+
+// Stage.act()のベンチマーク
+// 以前のキャラクターと同じように、アクション(移動の繰り返し)を持つアクターをN個ステージに置いて更新する
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageActBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int actors;
+
+    private SpriteBatch batch;
+    private Stage stage;
+
+    @Setup
+    public void setup() {
+        HeadlessGdx.init();
+        batch = new SpriteBatch();
+        stage = new Stage(new FitViewport(World.WIDTH, World.HEIGHT), batch);
+        for (int i = 0; i < actors; i++) {
+            Actor actor = new Actor();
+            actor.setBounds(i % World.WIDTH, World.HEIGHT, 45, 85);
+            actor.addAction(forever(sequence(moveBy(0, -World.HEIGHT, 1.f), moveBy(0, World.HEIGHT))));
+            stage.addActor(actor);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        stage.dispose();
+        batch.dispose();
+    }
+
+    @Benchmark
+    public Stage act() {
+        stage.act(1 / 60.f);
+        return stage;
+    }
+}
@@ -0,0 +1,216 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+// ゲームで使用する素材(テクスチャ・効果音・BGM)を一元管理するクラス
+// 使う素材は全てここで宣言し、起動時にAssetManagerで別のスレッドから読み込む (ゲーム中には読み込まない)
+// キャラクター用の小さな画像は読み込み後に1枚のテクスチャアトラスにまとめ、
+// 全てのキャラクターで同じTextureRegionを共有する (生成のたびにテクスチャを読み込まない)
+// フォントもアトラスに入れた画像から1つだけ作り、全てのテキストで共有する
+//
+//   queue() → 毎フレーム update() (trueを返すまで、getProgress()で進み具合を表示する) → region()などで取得
+final class Assets implements Disposable {
+
+    // アトラスにまとめる画像の名前 (拡張子なしのファイル名)
+    static final String BEAM = "beam";
+    static final String ENEMY_BEAM = "enemy_beam";
+    static final String ENEMY_SHIP = "enemy_ship";
+    static final String EXPLOSION = "explosion";
+    static final String ENEMY_EXPLOSION = "enemy_explosion";
+    static final String SPACESHIP = "spaceship01";
+    static final String RESTART_BUTTON = "restart_button";
+    static final String FONT = "88zen";        // フォントの定義ファイル(.fnt)と画像(.png)の名前
+    static final String WHITE = "white";        // 図形の描画用の白い画像 (ファイルではなく起動時に作る)
+
+    // 画面いっぱいの大きな画像はアトラスに入れずに個別のテクスチャとして読み込む
+    // 星の背景は、描画しない区画の表(マスク)も読み込みのスレッドで作る (MaskedTextureLoader)
+    static final String STAR_BACK = "star_back";
+    static final String STAR_FRONT = "star_front";
+    static final String YOU_WIN = "you_win";
+    static final String GAME_OVER = "game_over";
+
+    // 効果音とBGM (ファイル名)
+    static final String BEAM_SOUND = "beam.wav";
+    static final String EXPLOSION_SOUND = "explosion.wav";
+    static final String ENEMY_SPAWN_SOUND = "enemy_spawn.wav";
+    static final String ENEMY_BEAM_SOUND = "enemy_beam.wav";
+    static final String ENEMY_EXPLOSION_SOUND = "enemy_explosion.wav";
+    static final String LOSE_SOUND = "lose.wav";
+    static final String WIN_SOUND = "win.wav";
+    static final String TAP_SOUND = "tap.wav";
+    static final String BGM = "bgm.mp3";
+
+    private static final String[] SPRITES = {
+        BEAM, ENEMY_BEAM, ENEMY_SHIP, EXPLOSION, ENEMY_EXPLOSION,
+        SPACESHIP, "spaceship02", "spaceship03", RESTART_BUTTON, FONT,
+    };
+    private static final String[] BACKGROUNDS = { STAR_BACK, STAR_FRONT };
+    private static final String[] TEXTURES = { YOU_WIN, GAME_OVER };
+    private static final String[] SOUNDS = {
+        BEAM_SOUND, EXPLOSION_SOUND, ENEMY_SPAWN_SOUND, ENEMY_BEAM_SOUND, ENEMY_EXPLOSION_SOUND,
+        LOSE_SOUND, WIN_SOUND, TAP_SOUND,
+    };
+
+    private static final int ATLAS_PAGE_SIZE = 1024;
+
+    private final AssetManager manager = new AssetManager();
+    private boolean loaded;         // 全て読み込み、アトラスを作り終えた
+    private TextureAtlas atlas;
+    private BitmapFont font;
+    private final ObjectMap<String, TextureRegion> regions = new ObjectMap<String, TextureRegion>();
+    private final ObjectMap<String, Texture> textures = new ObjectMap<String, Texture>();
+    private final ObjectMap<String, boolean[]> tileMasks = new ObjectMap<String, boolean[]>();
+
+    // 全ての素材の読み込みを予約する (create()で1回だけ呼び出す)
+    // 画像の展開と音声の読み込みはAssetManagerのスレッドで行われ、GLへの転送だけがupdate()の中で行われる
+    void queue() {
+        for (String name : SPRITES) {
+            manager.load(name + ".png", Pixmap.class);  // アトラスにまとめるので、テクスチャにせずPixmapのまま読み込む
+        }
+        TextureLoader.TextureParameter linear = new TextureLoader.TextureParameter();
+        linear.minFilter = Texture.TextureFilter.Linear;
+        linear.magFilter = Texture.TextureFilter.Linear;
+        for (String name : TEXTURES) {
+            manager.load(name + ".png", Texture.class, linear);
+        }
+        manager.setLoader(MaskedTexture.class, new MaskedTextureLoader(manager.getFileHandleResolver()));
+        MaskedTextureLoader.Parameter background = new MaskedTextureLoader.Parameter();
+        background.minFilter = Texture.TextureFilter.Linear;
+        background.magFilter = Texture.TextureFilter.Linear;
+        for (String name : BACKGROUNDS) {
+            manager.load(name + ".png", MaskedTexture.class, background);
+        }
+        for (String file : SOUNDS) {
+            manager.load(file, Sound.class);
+        }
+        manager.load(BGM, Music.class);
+    }
+
+    // 読み込みを最大millisミリ秒だけ進める (描画スレッドから毎フレーム呼び出す)
+    // 全て読み込み終えたら、アトラスとフォントを作ってtrueを返す
+    boolean update(int millis) {
+        if (loaded) return true;
+        if (!manager.update(millis)) return false;
+        buildAtlas();
+        loaded = true;
+        return true;
+    }
+
+    // 全て読み込み終えるまで待つ (読み込み画面を出さない場合に使う)
+    void finishLoading() {
+        manager.finishLoading();
+        update(0);
+    }
+
+    // 読み込みの進み具合 (0〜1)
+    float getProgress() {
+        return loaded ? 1 : manager.getProgress();
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    // 読み込んだ画像を1枚のアトラスにまとめる
+    private void buildAtlas() {
+        PixmapPacker packer = new PixmapPacker(ATLAS_PAGE_SIZE, ATLAS_PAGE_SIZE, Pixmap.Format.RGBA8888, 2, true);
+        for (String name : SPRITES) {
+            packer.pack(name, manager.get(name + ".png", Pixmap.class));
+            manager.unload(name + ".png");  // packerにコピーされるので元のPixmapは不要
+        }
+        // 白い画像をアトラスに入れておくと、色付きの四角形(メーターなど)もキャラクターと同じバッチで描画できる
+        Pixmap white = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+        white.setColor(1, 1, 1, 1);
+        white.fill();
+        packer.pack(WHITE, white);
+        white.dispose();
+        atlas = packer.generateTextureAtlas(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
+        packer.dispose();
+        for (String name : SPRITES) {
+            regions.put(name, atlas.findRegion(name));
+        }
+        // 端の画素がフィルタで周りと混ざらないように、内側の1画素だけを使う
+        regions.put(WHITE, new TextureRegion(atlas.findRegion(WHITE), 1, 1, 1, 1));
+        // フォントのページ画像はアトラス内の画像を使う (フォント用のテクスチャを別に作らない)
+        font = new BitmapFont(Gdx.files.internal(FONT + ".fnt"), regions.get(FONT));
+
+        for (String name : TEXTURES) {
+            textures.put(name, manager.get(name + ".png", Texture.class));
+        }
+        for (String name : BACKGROUNDS) {
+            MaskedTexture background = manager.get(name + ".png", MaskedTexture.class);
+            textures.put(name, background.texture);
+            tileMasks.put(name, background.tiles);
+        }
+    }
+
+    // アトラス内の画像を取得する
+    TextureRegion region(String name) {
+        TextureRegion region = regions.get(name);
+        if (region == null) throw new GdxRuntimeException("Sprite not found in atlas: " + name);
+        return region;
+    }
+
+    // 共有フォントを取得する
+    BitmapFont font() {
+        if (font == null) throw new GdxRuntimeException("Font not loaded: " + FONT);
+        return font;
+    }
+
+    // 個別に読み込んだ画像を取得する
+    Texture texture(String name) {
+        Texture texture = textures.get(name);
+        if (texture == null) throw new GdxRuntimeException("Texture not loaded: " + name);
+        return texture;
+    }
+
+    // 背景の画像の描画しない区画の表を取得する (ParallaxBackground.addLayer()に渡す)
+    boolean[] tileMask(String name) {
+        boolean[] tiles = tileMasks.get(name);
+        if (tiles == null) throw new GdxRuntimeException("Tile mask not loaded: " + name);
+        return tiles;
+    }
+
+    // 効果音を取得する (破棄はAssetsで行う)
+    Sound sound(String file) {
+        if (!manager.isLoaded(file, Sound.class)) throw new GdxRuntimeException("Sound not loaded: " + file);
+        return manager.get(file, Sound.class);
+    }
+
+    // BGMを取得する (破棄はAssetsで行う)
+    Music music(String file) {
+        if (!manager.isLoaded(file, Music.class)) throw new GdxRuntimeException("Music not loaded: " + file);
+        return manager.get(file, Music.class);
+    }
+
+    // 現在確保しているGLテクスチャの数 (キャラクターが何体生成されても変わらないこと)
+    int getTextureCount() {
+        return (atlas == null ? 0 : atlas.getTextures().size) + textures.size;
+    }
+
+    @Override
+    public void dispose() {
+        if (font != null) font.dispose();   // ページ画像はアトラスのものなので、アトラスと一緒に破棄される
+        if (atlas != null) atlas.dispose();
+        manager.dispose();      // 個別のテクスチャ・効果音・BGMと、読み込み途中の素材を破棄する
+        atlas = null;
+        font = null;
+        loaded = false;
+        regions.clear();
+        textures.clear();
+        tileMasks.clear();
+    }
+}
@@ -0,0 +1,103 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+// 決まった処理を専用のスレッドで1回ずつ実行するクラス
+// start()で実行を始め、await()で終わるのを待つ (描画と並行してシミュレーションを進めるために使う)
+// await()から戻った後は、処理の中で書き込んだ内容を呼び出し側のスレッドから読める
+// 実行のたびにオブジェクトを生成しない
+final class BackgroundTask implements Disposable {
+
+    private final Runnable task;
+    private final Thread thread;
+    private final Object lock = new Object();
+    private boolean requested;      // start()されて、まだ始まっていない
+    private boolean running;        // 実行中 (start()から処理が終わるまで)
+    private Throwable failure;      // 処理で発生した例外
+    private boolean disposed;
+
+    BackgroundTask(String name, Runnable task) {
+        this.task = task;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 処理を始める (前回の処理が終わっていなければ終わるまで待つ)
+    void start() {
+        await();
+        synchronized (lock) {
+            requested = true;
+            running = true;
+            lock.notifyAll();
+        }
+    }
+
+    // 処理が終わるまで待つ。処理で例外が発生していた場合は、ここで投げ直す
+    void await() {
+        Throwable error;
+        synchronized (lock) {
+            while (running) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GdxRuntimeException(e);
+                }
+            }
+            error = failure;
+            failure = null;
+        }
+        if (error != null) throw new GdxRuntimeException("Background task failed: " + thread.getName(), error);
+    }
+
+    private void loop() {
+        while (true) {
+            synchronized (lock) {
+                while (!disposed && !requested) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (disposed) return;
+                requested = false;
+            }
+            Throwable error = null;
+            try {
+                task.run();
+            } catch (Throwable e) {
+                error = e;
+            }
+            synchronized (lock) {
+                failure = error;
+                running = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // スレッドを止める (実行中の処理は終わるまで待つ)
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            while (running) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            disposed = true;
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+// テクスチャの切り替え回数を数えるSpriteBatch
+// 切り替えのたびにバッチが区切られてテクスチャがバインドされるので、レイヤーごとの描画の効率の目安になる
+final class BindCountingBatch extends SpriteBatch {
+
+    int textureSwitches;    // 生成からのテクスチャの切り替え回数
+    private Texture current;    // 現在のテクスチャ (begin()の後、まだ描画していなければnull)
+
+    BindCountingBatch(int size) {
+        super(size);
+    }
+
+    @Override
+    protected void switchTexture(Texture texture) {
+        textureSwitches++;
+        current = texture;
+        super.switchTexture(texture);
+    }
+
+    @Override
+    public void end() {
+        super.end();
+        current = null;     // SpriteBatchもend()でテクスチャを忘れる
+    }
+
+    Texture getCurrentTexture() {
+        return current;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hide.shooting;
+
+// キャラクターの種類の組み合わせごとに、衝突した時の処理を登録しておく表
+// 登録した組み合わせからカテゴリ/マスクのビットを作るので、
+// 新しい種類のキャラクターを追加しても衝突判定のループを変更する必要はない
+final class CollisionMatrix<T> {
+
+    // 衝突した時の処理
+    // 弾(ProjectileSystem)は1発ごとのオブジェクトを持たないので、弾の側の引数にはnullが渡される
+    interface ContactHandler<T> {
+        void onContact(T a, T b);
+    }
+
+    private final int[] masks = new int[EntityKind.VALUES.length];
+    private final Object[] handlers = new Object[EntityKind.VALUES.length * EntityKind.VALUES.length];
+
+    // 種類aと種類bが衝突した時の処理を登録する (処理にはa, bの順に渡される)
+    CollisionMatrix<T> on(EntityKind a, EntityKind b, ContactHandler<T> handler) {
+        masks[a.ordinal()] |= b.category;
+        masks[b.ordinal()] |= a.category;
+        handlers[a.ordinal() * EntityKind.VALUES.length + b.ordinal()] = handler;
+        return this;
+    }
+
+    // 種類kindと衝突する可能性のある種類のカテゴリを全て合わせたもの
+    int mask(EntityKind kind) {
+        return masks[kind.ordinal()];
+    }
+
+    // 登録された処理を呼び出す (登録時とは逆の順番で渡された場合も入れ替えて呼び出す)
+    @SuppressWarnings("unchecked")
+    void dispatch(EntityKind kindA, T a, EntityKind kindB, T b) {
+        ContactHandler<T> handler = (ContactHandler<T>)handlers[kindA.ordinal() * EntityKind.VALUES.length + kindB.ordinal()];
+        if (handler != null) {
+            handler.onContact(a, b);
+            return;
+        }
+        handler = (ContactHandler<T>)handlers[kindB.ordinal() * EntityKind.VALUES.length + kindA.ordinal()];
+        if (handler != null) handler.onContact(b, a);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hide.shooting;
+
+// ゲームの難易度
+// 敵の発生間隔・ビームの発射間隔・1回に撃つ弾の数・弾の速さを決める
+public enum Difficulty {
+    // 通常モード: 3秒〜6秒ごとに敵が発生し、敵は0.5秒〜3秒ごとに真下へビームを1発撃つ
+    NORMAL(3, 6, .5f, 3, 1, 1776, false),
+    // 弾幕モード: 敵が次々に発生し、それぞれが全方向に大量の弾をばらまく
+    BULLET_HELL(.4f, .8f, .08f, .16f, 48, 280, true);
+
+    final float spawnIntervalMin;   // 敵の発生間隔 (秒)
+    final float spawnIntervalMax;
+    final float fireIntervalMin;    // 敵のビームの発射間隔 (秒)
+    final float fireIntervalMax;
+    final int bulletsPerShot;       // 1回に撃つ弾の数 (1なら真下、2以上なら全方向)
+    final float bulletSpeed;        // 弾の速さ (1秒あたりの移動量)
+    final boolean dense;            // 敵機・弾が多く、更新を複数のスレッドで分担する価値がある
+
+    Difficulty(float spawnIntervalMin, float spawnIntervalMax, float fireIntervalMin, float fireIntervalMax,
+               int bulletsPerShot, float bulletSpeed, boolean dense) {
+        this.spawnIntervalMin = spawnIntervalMin;
+        this.spawnIntervalMax = spawnIntervalMax;
+        this.fireIntervalMin = fireIntervalMin;
+        this.fireIntervalMax = fireIntervalMax;
+        this.bulletsPerShot = bulletsPerShot;
+        this.bulletSpeed = bulletSpeed;
+        this.dense = dense;
+    }
+}
@@ -0,0 +1,176 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+
+import java.util.Random;
+
+// 爆発などの演出(エフェクト)をまとめて管理・描画するクラス
+// エフェクトごとにActorやアクションを作らず、種類・位置・経過時間と火花(パーティクル)の速度をプリミティブ型の配列で持つ
+// 配列は生成時に上限(capacity)の分だけ確保しておくので(プリウォーム)、一度に大量に爆発してもオブジェクトを生成しない
+// 上限に達したら一番古いエフェクトを再利用する。全てのエフェクトを1回のループで、同じアトラスからバッチに描画する
+// (乱数は演出用で、シミュレーションの乱数とは別のものを使う)
+final class EffectSystem extends Actor implements LayerGroup.Textured {
+
+    static final int SPARKS = 8;                // 1つのエフェクトの火花の数
+    static final float SPARK_TIME = .6f;        // 火花が消えるまでの時間 (秒)
+    static final float SPARK_SIZE = 10;
+    static final float SPARK_SPEED_MIN = 200;   // 火花の飛ぶ速さ (1秒あたり)
+    static final float SPARK_SPEED_MAX = 600;
+    // 爆発の閃光の動き (拡大しながら現れ、しばらく表示してから消える)
+    static final float FLASH_SCALE = 2;
+    static final float GROW_TIME = .2f;
+    static final float HOLD_TIME = .5f;
+    static final float FADE_TIME = 1.5f;
+    static final float ANIMATED_TIME = GROW_TIME + HOLD_TIME + FADE_TIME;
+
+    final int capacity;
+    private final TextureRegion[] flashes;      // 種類ごとの閃光の画像
+    private final Color[] sparkColors;          // 種類ごとの火花の色
+    private final TextureRegion spark;          // 火花の画像 (白い画像に色を付ける)
+    private final int[] type;
+    private final float[] x;
+    private final float[] y;
+    private final float[] age;                  // 経過時間 (秒)
+    private final float[] duration;             // 表示する時間 (秒)
+    private final boolean[] animated;           // falseなら拡大・フェード・火花を省いて表示する
+    private final float[] sparkVX;              // 火花の速度 (エフェクトごとにSPARKS個ずつ並ぶ)
+    private final float[] sparkVY;
+    private final int[] counts;                 // 種類ごとのエフェクトの数
+    private final Random random = new Random();
+    private int size;
+    private int stolen;                         // 上限に達したため、表示中のエフェクトを再利用した回数
+
+    EffectSystem(int capacity, TextureRegion[] flashes, Color[] sparkColors, TextureRegion spark) {
+        this.capacity = capacity;
+        this.flashes = flashes;
+        this.sparkColors = sparkColors;
+        this.spark = spark;
+        type = new int[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        age = new float[capacity];
+        duration = new float[capacity];
+        animated = new boolean[capacity];
+        sparkVX = new float[capacity * SPARKS];
+        sparkVY = new float[capacity * SPARKS];
+        counts = new int[flashes.length];
+    }
+
+    // 種類typeのエフェクトを、閃光の画像の左下が(x, y)に来るように表示する
+    // animatedがfalseなら、最大の大きさでdurationの間だけ表示する
+    void spawn(int type, float x, float y, boolean animated, float duration) {
+        int i;
+        if (size == capacity) {
+            i = oldest();
+            counts[this.type[i]]--;
+            stolen++;
+        } else {
+            i = size++;
+        }
+        this.type[i] = type;
+        this.x[i] = x;
+        this.y[i] = y;
+        age[i] = 0;
+        this.animated[i] = animated;
+        this.duration[i] = animated ? ANIMATED_TIME : duration;
+        counts[type]++;
+        if (!animated) return;
+        for (int s = i * SPARKS, end = s + SPARKS; s < end; s++) {
+            float angle = random.nextFloat() * MathUtils.PI2;
+            float speed = SPARK_SPEED_MIN + random.nextFloat() * (SPARK_SPEED_MAX - SPARK_SPEED_MIN);
+            sparkVX[s] = MathUtils.cos(angle) * speed;
+            sparkVY[s] = MathUtils.sin(angle) * speed;
+        }
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < size; i++) {
+            if (age[i] > age[oldest]) oldest = i;
+        }
+        return oldest;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        for (int i = 0; i < size; ) {
+            age[i] += delta;
+            if (age[i] >= duration[i]) {
+                remove(i);  // 末尾のエフェクトが移ってきたので、同じ位置をもう一度進める
+            } else {
+                i++;
+            }
+        }
+    }
+
+    // i番目のエフェクトを削除する (末尾のエフェクトをi番目に移す)
+    private void remove(int i) {
+        counts[type[i]]--;
+        int last = --size;
+        if (i == last) return;
+        type[i] = type[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        age[i] = age[last];
+        duration[i] = duration[last];
+        animated[i] = animated[last];
+        System.arraycopy(sparkVX, last * SPARKS, sparkVX, i * SPARKS, SPARKS);
+        System.arraycopy(sparkVY, last * SPARKS, sparkVY, i * SPARKS, SPARKS);
+    }
+
+    @Override
+    public Texture getTexture() {
+        return spark.getTexture();
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        for (int i = 0; i < size; i++) {
+            TextureRegion flash = flashes[type[i]];
+            float width = flash.getRegionWidth(), height = flash.getRegionHeight();
+            float t = age[i];
+            float scale = FLASH_SCALE, alpha = 1;
+            if (animated[i]) {
+                scale = FLASH_SCALE * Math.min(t / GROW_TIME, 1);
+                if (t < GROW_TIME) alpha = t / GROW_TIME;
+                else if (t > GROW_TIME + HOLD_TIME) alpha = 1 - (t - GROW_TIME - HOLD_TIME) / FADE_TIME;
+            }
+            batch.setColor(1, 1, 1, alpha * parentAlpha);
+            batch.draw(flash, x[i], y[i], width * .5f, height * .5f, width, height, scale, scale, 0);
+            if (animated[i] && t < SPARK_TIME) drawSparks(batch, i, x[i] + width * .5f, y[i] + height * .5f, t, parentAlpha);
+        }
+        batch.setColor(1, 1, 1, 1);
+    }
+
+    // 中心から飛び散り、減速しながら消えていく火花を描画する
+    private void drawSparks(Batch batch, int i, float centerX, float centerY, float t, float parentAlpha) {
+        float progress = t / SPARK_TIME;
+        float distance = t * (1 - progress * .5f);     // 速度が一定の割合で落ちていく場合の移動量 (速度1あたり)
+        float size = SPARK_SIZE * (1 - progress * .5f);
+        Color color = sparkColors[type[i]];
+        batch.setColor(color.r, color.g, color.b, color.a * (1 - progress) * parentAlpha);
+        for (int s = i * SPARKS, end = s + SPARKS; s < end; s++) {
+            batch.draw(spark, centerX + sparkVX[s] * distance - size * .5f, centerY + sparkVY[s] * distance - size * .5f, size, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // 種類ごとの表示中のエフェクトの数
+    int count(int type) {
+        return counts[type];
+    }
+
+    @Override
+    public String toString() {
+        return "effects: live=" + size + " capacity=" + capacity + " stolen=" + stolen;
+    }
+}
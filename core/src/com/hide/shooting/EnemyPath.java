@@ -0,0 +1,82 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.math.CatmullRomSpline;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+// 敵機の移動経路
+// 曲線は読み込み時に一定の時間間隔で位置を計算して表(ルックアップテーブル)にしておき、
+// ゲーム中は表の隣り合う2点を線形補間するだけで位置を求める (オブジェクトを生成しない)
+// 位置は敵機の中心の座標で、時間0から経路の長さ(duration)までの間で求められる
+final class EnemyPath {
+
+    static final int SAMPLES_PER_SECOND = 60;   // 表に記録する1秒あたりの点の数
+
+    final String name;
+    final float duration;       // 経路の終わりまでの時間 (秒)
+    private final float[] xs;   // 表 (時間ごとの中心の座標)
+    private final float[] ys;
+
+    private EnemyPath(String name, float duration) {
+        if (duration <= 0) throw new GdxRuntimeException("Path duration must be > 0: " + name);
+        this.name = name;
+        this.duration = duration;
+        int samples = Math.max(2, (int)Math.ceil(duration * SAMPLES_PER_SECOND) + 1);
+        xs = new float[samples];
+        ys = new float[samples];
+    }
+
+    // 指定した点を通る滑らかな曲線 (Catmull-Romスプライン)
+    // pointsはx, yの順に並べた座標で、最初の点から最後の点まで通る
+    static EnemyPath spline(String name, float duration, float[] points) {
+        if (points.length < 4 || points.length % 2 != 0) throw new GdxRuntimeException("Spline needs at least 2 points: " + name);
+        int count = points.length / 2;
+        // 最初と最後の点を重ねて、端の点も通るようにする
+        Vector2[] controls = new Vector2[count + 2];
+        for (int i = 0; i < count; i++) controls[i + 1] = new Vector2(points[i * 2], points[i * 2 + 1]);
+        controls[0] = controls[1];
+        controls[count + 1] = controls[count];
+        CatmullRomSpline<Vector2> spline = new CatmullRomSpline<Vector2>(controls, false);
+
+        EnemyPath path = new EnemyPath(name, duration);
+        Vector2 point = new Vector2();
+        int last = path.xs.length - 1;
+        for (int i = 0; i <= last; i++) {
+            spline.valueAt(point, i / (float)last);
+            path.xs[i] = point.x;
+            path.ys[i] = point.y;
+        }
+        return path;
+    }
+
+    // 上から下へ一定の速さで進みながら、左右に正弦波で揺れる経路
+    static EnemyPath sine(String name, float duration, float x, float top, float bottom, float amplitude, float cycles) {
+        EnemyPath path = new EnemyPath(name, duration);
+        int last = path.xs.length - 1;
+        for (int i = 0; i <= last; i++) {
+            float t = i / (float)last;
+            path.xs[i] = x + amplitude * MathUtils.sin(MathUtils.PI2 * cycles * t);
+            path.ys[i] = top + (bottom - top) * t;
+        }
+        return path;
+    }
+
+    // 時間timeでの中心のx座標
+    float x(float time) {
+        return sample(xs, time);
+    }
+
+    // 時間timeでの中心のy座標
+    float y(float time) {
+        return sample(ys, time);
+    }
+
+    private float sample(float[] table, float time) {
+        int last = table.length - 1;
+        float position = MathUtils.clamp(time / duration, 0, 1) * last;
+        int i = Math.min((int)position, last - 1);
+        float fraction = position - i;
+        return table[i] + (table[i + 1] - table[i]) * fraction;
+    }
+}
@@ -0,0 +1,62 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Pool;
+
+// シミュレーション上のキャラクター (スペースシップ・敵機)
+// 描画に関する情報は持たず、位置と動きの状態だけを持つ
+final class Entity implements Pool.Poolable {
+
+    EntityKind kind;
+    float x;
+    float y;
+    float width;
+    float height;
+    float prevX;            // 1つ前のティックの位置 (描画時の補間と、移動した区間での衝突判定に使う)
+    float prevY;
+
+    // 敵機用: 縦方向の移動
+    float descentSpeed;     // 1秒あたりに下に進む量
+    float descentTime;      // 画面下に抜けるまでの残り時間
+    // 敵機用: 横方向の不規則な移動
+    float zigzagDelay;      // 横に動き始める間隔
+    float zigzagTimer;      // 次に横に動き始めるまでの時間
+    float zigzagSpeed;      // 横に動く速さ
+    float zigzagTime;       // 横に動く残り時間
+    // 敵機用: ビームの発射
+    boolean fires;          // ビームを撃つか
+    float fireDelay;        // ビームを撃つ間隔
+    float fireTimer;        // 次にビームを撃つまでの時間
+    // 敵機用: ステージ(Level)で決められた経路に沿った移動 (pathがnullならランダムに動く)
+    EnemyPath path;
+    float pathTime;         // 経路上の経過時間
+    float pathOffset;       // 経路からの横のずれ (編隊での位置)
+
+    void set(EntityKind kind) {
+        this.kind = kind;
+        this.width = kind.width;
+        this.height = kind.height;
+    }
+
+    // 現在の位置を1つ前のティックの位置として記録する
+    void savePrevious() {
+        prevX = x;
+        prevY = y;
+    }
+
+    boolean overlaps(Entity other) {
+        return x < other.x + other.width && x + width > other.x && y < other.y + other.height && y + height > other.y;
+    }
+
+    @Override
+    public void reset() {
+        kind = null;
+        x = y = 0;
+        prevX = prevY = 0;
+        descentSpeed = descentTime = 0;
+        zigzagDelay = zigzagTimer = zigzagSpeed = zigzagTime = 0;
+        fires = false;
+        fireDelay = fireTimer = 0;
+        path = null;
+        pathTime = pathOffset = 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.hide.shooting;
+
+// ゲーム中のキャラクターの種類
+// 種類ごとに1ビットのカテゴリを割り当て、衝突判定の絞り込みをビット演算(AND)1回で行えるようにする
+// 大きさは画像の大きさと同じにする (シミュレーションは画像を読み込まずに動かせるようにする)
+enum EntityKind {
+    PLAYER(227, 227),       // スペースシップ (プレイヤー)
+    ENEMY(208, 128),        // 敵機
+    BEAM(45, 85),           // プレイヤーのビーム
+    ENEMY_BEAM(45, 85),     // 敵のビーム
+    EXPLOSION(208, 128);    // 爆発 (衝突判定の対象外)
+
+    final int category = 1 << ordinal();
+    final float width;
+    final float height;
+
+    static final EntityKind[] VALUES = values();
+
+    EntityKind(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+}
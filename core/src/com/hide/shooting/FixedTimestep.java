@@ -0,0 +1,57 @@
+package com.hide.shooting;
+
+// 固定時間ステップのゲームループ用の時間管理
+// 描画のたびの経過時間(delta time)を貯めておき、一定の時間(1ティック)ごとにシミュレーションを進める
+// 描画の間隔がばらついても、シミュレーションは常に同じ時間刻みで進むので、動きや衝突判定が変わらない
+final class FixedTimestep {
+
+    final int tickRate;             // 1秒あたりのティック数
+    final float tickTime;           // 1ティックの時間 (秒)
+    final int maxTicksPerFrame;     // 1回の描画で進めるティック数の上限
+    private float accumulator;      // まだシミュレーションに反映していない経過時間
+    private long droppedTicks;      // 上限を超えたため切り捨てたティック数 (reset()からの合計)
+    private int lastDroppedTicks;   // 直前のadvance()で切り捨てたティック数
+
+    FixedTimestep(int tickRate, int maxTicksPerFrame) {
+        if (tickRate <= 0) throw new IllegalArgumentException("tickRate must be > 0: " + tickRate);
+        if (maxTicksPerFrame <= 0) throw new IllegalArgumentException("maxTicksPerFrame must be > 0: " + maxTicksPerFrame);
+        this.tickRate = tickRate;
+        this.tickTime = 1.f / tickRate;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    // 経過時間を加え、今回の描画で進めるティック数を返す
+    // 処理落ちで時間が貯まりすぎた場合は上限までしか進めず、残りは切り捨てる (追いつこうとしてさらに遅くなるのを防ぐ)
+    int advance(float delta) {
+        if (delta > 0) accumulator += delta;
+        int ticks = (int)(accumulator / tickTime);
+        accumulator -= ticks * tickTime;
+        lastDroppedTicks = 0;
+        if (ticks > maxTicksPerFrame) {
+            lastDroppedTicks = ticks - maxTicksPerFrame;
+            droppedTicks += lastDroppedTicks;
+            ticks = maxTicksPerFrame;
+        }
+        return ticks;
+    }
+
+    // 直前の2ティックの間のどの位置を描画するか (0なら1つ前のティック、1なら最新のティック)
+    float alpha() {
+        return Math.min(1, accumulator / tickTime);
+    }
+
+    long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    int getLastDroppedTicks() {
+        return lastDroppedTicks;
+    }
+
+    // 貯めた時間と切り捨てたティック数を0に戻す (アプリの再開時とゲームのリスタート時に呼び出す)
+    void reset() {
+        accumulator = 0;
+        droppedTicks = 0;
+        lastDroppedTicks = 0;
+    }
+}
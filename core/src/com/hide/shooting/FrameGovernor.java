@@ -0,0 +1,110 @@
+package com.hide.shooting;
+
+// 処理の重さに応じて演出と敵の密度を段階的に減らす調整役 (ガバナー)
+// フレームごとの処理時間の移動平均を目標の時間(予算)と比べ、予算を超え続けたら1段階ずつ下げ、余裕が続いたら1段階ずつ戻す
+// 段階を変えるたびにリスナーに知らせる (ログの出力と、演出・シミュレーションへの反映はShootingで行う)
+// 時間は自分で計らず、update()に渡された処理時間だけで判断するので、ヘッドレス環境で作った処理時間の列でも動かせる
+final class FrameGovernor {
+
+    // 段階 (上の段階は下の段階の調整を全て含む)
+    static final int FULL = 0;                  // 全ての演出を行う
+    static final int CAP_EXPLOSIONS = 1;        // 同時に表示する敵の爆発の数を制限する
+    static final int STATIC_EXPLOSIONS = 2;     // 爆発の拡大・フェードのアニメーションを省く
+    static final int SINGLE_BACKGROUND = 3;     // 背景を奥の1層だけにする
+    static final int THROTTLE_ENEMIES = 4;      // 敵の出現・発射の間隔を伸ばす
+    static final int MAX_LEVEL = 5;             // THROTTLE_ENEMIESより上は、1段階ごとに間隔をさらに伸ばす
+
+    static final int WINDOW = 30;               // 移動平均を取るフレーム数
+    static final int DEGRADE_HOLD_FRAMES = WINDOW;  // 段階を変えてから次に下げるまでのフレーム数 (平均が変えた後のフレームだけになるまで待つ)
+    static final int RECOVER_HOLD_FRAMES = 180;     // 余裕のある状態がこのフレーム数続いたら1段階戻す
+    static final float RECOVER_RATIO = .6f;     // 平均が予算のこの割合を下回っていれば余裕がある
+
+    // 段階が変わったことを知らせるリスナー
+    interface Listener {
+        void onLevelChanged(FrameGovernor governor, int previous);
+    }
+
+    final float budget;                         // 1フレームの処理時間の目標 (秒)
+    private final float[] samples = new float[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private double sum;                         // samplesの合計
+    private int level = FULL;
+    private int framesSinceChange;
+    private int headroomFrames;                 // 余裕のある状態が続いているフレーム数
+    private int changes;                        // 段階を変えた回数
+    private Listener listener;
+
+    FrameGovernor(float budget) {
+        this.budget = budget;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // 1フレームの処理時間(秒)を記録し、必要なら段階を1つ変える
+    void update(float frameTime) {
+        sum += frameTime - samples[nextSample];
+        samples[nextSample] = frameTime;
+        nextSample = (nextSample + 1) % WINDOW;
+        if (sampleCount < WINDOW) sampleCount++;
+        framesSinceChange++;
+        if (sampleCount < WINDOW) return;   // 平均が取れるまでは判断しない
+
+        float average = getAverage();
+        if (average > budget) {
+            headroomFrames = 0;
+            if (level < MAX_LEVEL && framesSinceChange >= DEGRADE_HOLD_FRAMES) change(level + 1);
+        } else if (average < budget * RECOVER_RATIO) {
+            if (++headroomFrames >= RECOVER_HOLD_FRAMES && level > FULL) change(level - 1);
+        } else {
+            headroomFrames = 0;
+        }
+    }
+
+    private void change(int level) {
+        int previous = this.level;
+        this.level = level;
+        framesSinceChange = 0;
+        headroomFrames = 0;
+        changes++;
+        if (listener != null) listener.onLevelChanged(this, previous);
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    // 直近WINDOWフレームの処理時間の平均 (秒)
+    float getAverage() {
+        return sampleCount == 0 ? 0 : (float)(sum / sampleCount);
+    }
+
+    int getChanges() {
+        return changes;
+    }
+
+    boolean capExplosions() {
+        return level >= CAP_EXPLOSIONS;
+    }
+
+    boolean animateExplosions() {
+        return level < STATIC_EXPLOSIONS;
+    }
+
+    // 描画する背景の層の数
+    int backgroundLayers(int layers) {
+        return level >= SINGLE_BACKGROUND ? Math.min(layers, 1) : layers;
+    }
+
+    // シミュレーションに渡す、敵の出現・発射を抑える段階 (PlayerInput.throttle)
+    int throttle() {
+        return Math.max(0, level - THROTTLE_ENEMIES + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level + " average=" + Math.round(getAverage() * 1e5f) / 100.f + "ms budget=" + Math.round(budget * 1e5f) / 100.f + "ms";
+    }
+}
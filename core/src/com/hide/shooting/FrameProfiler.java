@@ -0,0 +1,205 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.files.FileHandle;
+
+// フレームごとの処理時間と描画の統計を記録するプロファイラ
+// 処理の区間(Phase)ごとに、1フレームあたりの時間をヒストグラムに記録し、一定時間ごとに集計する
+// 無効にしている間はbegin()/end()は何もしない
+final class FrameProfiler {
+
+    // 計測する処理の区間
+    enum Phase {
+        FRAME,              // render()全体
+        STEP,               // シミュレーションの更新 (World.step)
+        CONTROL_PLAYER,     // プレイヤーの操縦
+        SPAWN,              // 敵機の発生
+        CHECK_COLLISIONS,   // 衝突判定
+        CLEAR,              // 画面のクリア
+        STAGE_ACT,          // 演出の更新 (stage.act)
+        STAGE_DRAW;         // 描画 (stage.draw)
+
+        static final Phase[] VALUES = values();
+    }
+
+    // ライブ数を記録するもの (EntityKindごとの数に加えて記録する)
+    static final int LIVE_ACTORS = EntityKind.VALUES.length;    // ステージ上のアクター数
+
+    boolean enabled;
+    final String label;             // 出力に含める名前 (ビルドの比較用)
+
+    private final long[] starts = new long[Phase.VALUES.length];
+    private final long[] frameNanos = new long[Phase.VALUES.length];   // 現在のフレームでの区間ごとの合計時間
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.VALUES.length];
+    private final int[] live = new int[EntityKind.VALUES.length + 1];  // 最後のフレームでのライブ数
+
+    // 集計期間中の合計
+    private int frames;
+    private long drawCalls;
+    private long textureBinds;
+    private long renderCalls;
+    private final long[] layerBinds = new long[RenderLayer.VALUES.length];    // レイヤーごとのテクスチャの切り替え回数
+    private long droppedTicks;      // 処理落ちで切り捨てたシミュレーションのティック数 (FixedTimestep)
+    private long allocatedBytes;
+    private long lastUsedBytes;
+    private long windowStart;       // 集計期間の開始時刻 (ナノ秒)
+    private long startTime;         // 計測の開始時刻 (ナノ秒)
+    private boolean csvHeaderWritten;
+
+    FrameProfiler(String label) {
+        this.label = label;
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+        startTime = windowStart = System.nanoTime();
+        lastUsedBytes = usedBytes();
+    }
+
+    void begin(Phase phase) {
+        if (!enabled) return;
+        starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    void end(Phase phase) {
+        if (!enabled) return;
+        frameNanos[phase.ordinal()] += System.nanoTime() - starts[phase.ordinal()];
+    }
+
+    // 1フレーム分の描画の統計を加える
+    void addDrawStats(int drawCalls, int textureBinds, int renderCalls) {
+        this.drawCalls += drawCalls;
+        this.textureBinds += textureBinds;
+        this.renderCalls += renderCalls;
+    }
+
+    // 1フレーム分のレイヤーのテクスチャの切り替え回数を加える
+    void addLayerBinds(RenderLayer layer, int binds) {
+        layerBinds[layer.ordinal()] += binds;
+    }
+
+    // 1フレーム分の切り捨てたティック数を加える
+    void addDroppedTicks(int ticks) {
+        droppedTicks += ticks;
+    }
+
+    void setLive(int index, int count) {
+        live[index] = count;
+    }
+
+    // フレームの終わりに呼び出し、区間ごとの時間をヒストグラムに記録する
+    void endFrame() {
+        if (!enabled) return;
+        for (int i = 0; i < frameNanos.length; i++) {
+            histograms[i].record(frameNanos[i] / 1000);
+            frameNanos[i] = 0;
+        }
+        // ヒープの使用量の増加分をメモリ確保量とみなす (GCで減った場合は減った後の値から数え直す)
+        long used = usedBytes();
+        if (used > lastUsedBytes) allocatedBytes += used - lastUsedBytes;
+        lastUsedBytes = used;
+        frames++;
+    }
+
+    // 集計期間の秒数
+    float windowSeconds() {
+        return (System.nanoTime() - windowStart) / 1e9f;
+    }
+
+    LatencyHistogram histogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    // 画面表示用の集計結果
+    void summary(StringBuilder out) {
+        float seconds = Math.max(windowSeconds(), 1e-3f);
+        out.append(label).append("  fps ").append(Math.round(frames / seconds)).append('\n');
+        for (Phase phase : Phase.VALUES) {
+            LatencyHistogram h = histograms[phase.ordinal()];
+            out.append(phase.name()).append("  p50 ").append(h.percentile(.5f))
+                .append("  p99 ").append(h.percentile(.99f))
+                .append("  max ").append(h.max()).append(" us\n");
+        }
+        int n = Math.max(frames, 1);
+        out.append("draw calls ").append(drawCalls / n).append("  binds ").append(textureBinds / n)
+            .append("  batches ").append(renderCalls / n).append('\n');
+        out.append("binds/layer");
+        for (RenderLayer layer : RenderLayer.VALUES) out.append(' ').append(layerBinds[layer.ordinal()] / n);
+        out.append("  dropped ticks ").append(droppedTicks).append('\n');
+        for (EntityKind kind : EntityKind.VALUES) {
+            out.append(kind.name()).append(' ').append(live[kind.ordinal()]).append("  ");
+        }
+        out.append("ACTORS ").append(live[LIVE_ACTORS]).append('\n');
+        out.append("alloc ").append(Math.round(allocatedBytes / 1024.f / seconds)).append(" KB/s");
+    }
+
+    // 集計結果をCSVの1行として追記し、JSONを上書きして、次の集計期間を始める
+    void dump(FileHandle csv, FileHandle json) {
+        float seconds = Math.max(windowSeconds(), 1e-3f);
+        float elapsed = (System.nanoTime() - startTime) / 1e9f;
+        int n = Math.max(frames, 1);
+
+        StringBuilder out = new StringBuilder(1024);
+        if (!csvHeaderWritten && (!csv.exists() || csv.length() == 0)) {
+            out.append("label,elapsed_s,frames,fps");
+            for (Phase phase : Phase.VALUES) {
+                String name = phase.name().toLowerCase();
+                out.append(',').append(name).append("_p50_us,").append(name).append("_p99_us,").append(name).append("_max_us");
+            }
+            out.append(",draw_calls,texture_binds,render_calls");
+            for (RenderLayer layer : RenderLayer.VALUES) out.append(",binds_").append(layer.name().toLowerCase());
+            out.append(",dropped_ticks");
+            for (EntityKind kind : EntityKind.VALUES) out.append(',').append(kind.name().toLowerCase());
+            out.append(",actors,alloc_kb_per_s\n");
+        }
+        csvHeaderWritten = true;
+        out.append(label).append(',').append(elapsed).append(',').append(frames).append(',').append(frames / seconds);
+        for (Phase phase : Phase.VALUES) {
+            LatencyHistogram h = histograms[phase.ordinal()];
+            out.append(',').append(h.percentile(.5f)).append(',').append(h.percentile(.99f)).append(',').append(h.max());
+        }
+        out.append(',').append(drawCalls / (float)n).append(',').append(textureBinds / (float)n).append(',').append(renderCalls / (float)n);
+        for (long binds : layerBinds) out.append(',').append(binds / (float)n);
+        out.append(',').append(droppedTicks);
+        for (int i = 0; i < live.length; i++) out.append(',').append(live[i]);
+        out.append(',').append(allocatedBytes / 1024.f / seconds).append('\n');
+        csv.writeString(out.toString(), true, "UTF-8");
+
+        out.setLength(0);
+        out.append("{\"label\":\"").append(label).append("\",\"elapsedSeconds\":").append(elapsed)
+            .append(",\"frames\":").append(frames).append(",\"fps\":").append(frames / seconds).append(",\"phases\":{");
+        for (Phase phase : Phase.VALUES) {
+            LatencyHistogram h = histograms[phase.ordinal()];
+            if (phase.ordinal() > 0) out.append(',');
+            out.append('"').append(phase.name()).append("\":{\"p50Micros\":").append(h.percentile(.5f))
+                .append(",\"p99Micros\":").append(h.percentile(.99f)).append(",\"maxMicros\":").append(h.max()).append('}');
+        }
+        out.append("},\"drawCalls\":").append(drawCalls / (float)n).append(",\"textureBinds\":").append(textureBinds / (float)n)
+            .append(",\"renderCalls\":").append(renderCalls / (float)n).append(",\"layerBinds\":{");
+        for (RenderLayer layer : RenderLayer.VALUES) {
+            if (layer.ordinal() > 0) out.append(',');
+            out.append('"').append(layer.name()).append("\":").append(layerBinds[layer.ordinal()] / (float)n);
+        }
+        out.append("},\"droppedTicks\":").append(droppedTicks).append(",\"live\":{");
+        for (EntityKind kind : EntityKind.VALUES) {
+            out.append('"').append(kind.name()).append("\":").append(live[kind.ordinal()]).append(',');
+        }
+        out.append("\"ACTORS\":").append(live[LIVE_ACTORS]).append("},\"allocKBPerSecond\":").append(allocatedBytes / 1024.f / seconds).append("}\n");
+        json.writeString(out.toString(), false, "UTF-8");
+
+        resetWindow();
+    }
+
+    // 次の集計期間を始める
+    void resetWindow() {
+        for (LatencyHistogram h : histograms) h.clear();
+        frames = 0;
+        drawCalls = textureBinds = renderCalls = 0;
+        for (int i = 0; i < layerBinds.length; i++) layerBinds[i] = 0;
+        droppedTicks = 0;
+        allocatedBytes = 0;
+        lastUsedBytes = usedBytes();
+        windowStart = System.nanoTime();
+    }
+
+    private static long usedBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
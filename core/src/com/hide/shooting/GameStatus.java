@@ -0,0 +1,10 @@
+package com.hide.shooting;
+
+// ゲームの状態を管理するための列挙型を定義する
+enum GameStatus {
+    PLAYING,
+    GAME_WIN,
+    GAME_OVER,
+    WAIT_TO_RESTART_FROM_WIN,
+    WAIT_TO_RESTART_FROM_LOSE,
+}
@@ -0,0 +1,58 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+
+// ゲーム中に表示するテキスト (スコアなど)
+// フォントは全てのテキストで共有し、文字の配置(GlyphLayout)は内容が変わった時だけ計算し直す
+// 数値はStringBuilderに直接書き込むので、スコアが変わっても文字列を生成しない
+final class HudText extends Actor implements LayerGroup.Textured {
+
+    private final BitmapFont font;      // 共有フォント (破棄はAssetsで行う)
+    private final GlyphLayout layout = new GlyphLayout();
+    private final StringBuilder text = new StringBuilder(32);
+    private String prefix;
+    private int value;
+    private boolean hasValue;           // 数値付きのテキストを表示しているか
+
+    HudText(BitmapFont font) {
+        this.font = font;
+    }
+
+    // 固定のテキストを表示する
+    void setText(String text) {
+        hasValue = false;
+        this.text.setLength(0);
+        this.text.append(text);
+        layout.setText(font, this.text);
+    }
+
+    // "prefix + 数値"を表示する (前回と同じ内容なら何もしない)
+    void setText(String prefix, int value) {
+        if (hasValue && this.value == value && this.prefix.equals(prefix)) return;
+        this.prefix = prefix;
+        this.value = value;
+        hasValue = true;
+        text.setLength(0);
+        text.append(prefix).append(value);
+        layout.setText(font, text);
+    }
+
+    // 現在のテキストの表示幅
+    float getTextWidth() {
+        return layout.width;
+    }
+
+    @Override
+    public Texture getTexture() {
+        return font.getRegion().getTexture();
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        font.draw(batch, layout, getX(), getY());
+    }
+}
@@ -0,0 +1,60 @@
+package com.hide.shooting;
+
+// 処理時間の分布を記録するヒストグラム
+// マイクロ秒単位の値を、2倍ごとの区間をさらに8分割したバケットに数える (誤差は1/8以内)
+// 記録時にオブジェクトを生成しないので、毎フレーム記録しても問題ない
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private final int[] counts = new int[SUB_BUCKETS * 32];
+    private int total;
+    private long max;
+
+    void record(long micros) {
+        if (micros < 0) micros = 0;
+        counts[bucket(micros)]++;
+        total++;
+        if (micros > max) max = micros;
+    }
+
+    // 指定した割合(0〜1)の位置の値 (バケットの下限値)
+    long percentile(float fraction) {
+        if (total == 0) return 0;
+        int rank = Math.max(1, (int)Math.ceil(total * fraction));
+        int seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(lowerBound(i), max);
+        }
+        return max;
+    }
+
+    long max() {
+        return max;
+    }
+
+    int count() {
+        return total;
+    }
+
+    void clear() {
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+        total = 0;
+        max = 0;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);   // 2^exponent <= value
+        if (exponent > 33) return SUB_BUCKETS * 32 - 1;
+        int sub = (int)(value >> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 2;
+        int sub = bucket % SUB_BUCKETS;
+        return (long)(SUB_BUCKETS + sub) << (exponent - 3);
+    }
+}
@@ -0,0 +1,87 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.ui.Image;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+
+import java.util.Comparator;
+
+// 1つの描画レイヤー(RenderLayer)のアクターをまとめるGroup
+// 子アクターが変わった時だけ、使っているテクスチャの順に並べ替えてから描画する (同じテクスチャのアクターが続けて描画される)
+// 座標変換(transform)を使わないので、レイヤーの境目でバッチを区切らない
+// 描画中のテクスチャの切り替え回数を数え、プロファイラに渡せるようにする
+final class LayerGroup extends Group {
+
+    // 自分で描画するアクターが使うテクスチャを知らせるためのインターフェース
+    interface Textured {
+        Texture getTexture();
+    }
+
+    // テクスチャの順に並べる (同じテクスチャのアクターは追加した順のまま。テクスチャを持たないアクターは最後)
+    // 手前のレイヤーの最後に使ったテクスチャ(first)のアクターは先頭にして、レイヤーの境目で切り替えないようにする
+    private final Comparator<Actor> byTexture = new Comparator<Actor>() {
+        @Override
+        public int compare(Actor a, Actor b) {
+            int keyA = key(a), keyB = key(b);
+            return keyA < keyB ? -1 : keyA == keyB ? 0 : 1;
+        }
+
+        private int key(Actor actor) {
+            Texture texture = textureOf(actor);
+            if (texture == null) return Integer.MAX_VALUE;
+            return texture == first ? Integer.MIN_VALUE : texture.getTextureObjectHandle();
+        }
+    };
+
+    final RenderLayer layer;
+    private boolean unsorted;       // 子アクターが変わり、まだ並べ替えていない
+    private Texture first;          // 並べ替えの間だけ、先頭にするテクスチャ
+    private int binds;      // 最後の描画でのテクスチャの切り替え回数
+
+    LayerGroup(RenderLayer layer) {
+        this.layer = layer;
+        setTransform(false);
+        setTouchable(Touchable.childrenOnly);
+    }
+
+    @Override
+    protected void childrenChanged() {
+        unsorted = true;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        if (unsorted && layer.sortByTexture) {
+            first = batch instanceof BindCountingBatch ? ((BindCountingBatch)batch).getCurrentTexture() : null;
+            getChildren().sort(byTexture);  // 並べ替えは安定ソート
+            first = null;
+        }
+        unsorted = false;
+        int before = switches(batch);
+        super.draw(batch, parentAlpha);
+        binds = switches(batch) - before;
+    }
+
+    int getBinds() {
+        return binds;
+    }
+
+    private static int switches(Batch batch) {
+        return batch instanceof BindCountingBatch ? ((BindCountingBatch)batch).textureSwitches : 0;
+    }
+
+    // アクターが描画に使うテクスチャ (分からない場合はnull)
+    static Texture textureOf(Actor actor) {
+        if (actor instanceof Textured) return ((Textured)actor).getTexture();
+        if (actor instanceof Image) {
+            Drawable drawable = ((Image)actor).getDrawable();
+            if (drawable instanceof TextureRegionDrawable) return ((TextureRegionDrawable)drawable).getRegion().getTexture();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Comparator;
+
+// 敵の出現のしかたを記述したステージ (レベル)
+// assetsのJSONファイルから読み込み、移動経路(paths)と、いつ・どの経路に・何機を出すか(waves)を持つ
+//
+// {
+//   "loop": 40,                                    // この秒数ごとに最初のウェーブから繰り返す (0なら繰り返さない)
+//   "paths": [
+//     { "name": "s", "type": "spline", "duration": 6, "points": [ 200, 1900, 900, 1200, 200, 500, 540, -150 ] },
+//     { "name": "w", "type": "sine", "duration": 5, "x": 540, "top": 1900, "bottom": -150, "amplitude": 300, "cycles": 2 }
+//   ],
+//   "waves": [
+//     { "time": 1, "path": "w", "count": 5, "interval": .4, "spacing": 0, "fire": true }
+//   ]
+// }
+//
+// ウェーブのcount機の敵機は、interval秒ずつ遅れて、経路から横にspacingずつずらした位置に出現する (横一列の編隊はinterval 0)
+final class Level {
+
+    // 敵機をまとめて出現させる単位
+    static final class Wave {
+        float time;             // レベル開始からの出現時刻
+        EnemyPath path;
+        int count;              // 敵機の数
+        float interval;         // 1機ごとの出現の遅れ (秒)
+        float spacing;          // 1機ごとの経路からの横のずれ (編隊の中央が経路の上に来る)
+        boolean fire;           // ビームを撃つか
+
+        // i番目の敵機の出現時刻
+        float spawnTime(int i) {
+            return time + interval * i;
+        }
+
+        // i番目の敵機の経路からの横のずれ
+        float offset(int i) {
+            return spacing * (i - (count - 1) * .5f);
+        }
+    }
+
+    final String name;
+    final float loop;
+    final Array<Wave> waves = new Array<Wave>();    // 出現時刻の順に並ぶ
+    private final ObjectMap<String, EnemyPath> paths = new ObjectMap<String, EnemyPath>();
+
+    private Level(String name, float loop) {
+        this.name = name;
+        this.loop = loop;
+    }
+
+    static Level load(FileHandle file) {
+        JsonValue root = new JsonReader().parse(file);
+        Level level = new Level(file.path(), root.getFloat("loop", 0));
+
+        for (JsonValue json = root.require("paths").child; json != null; json = json.next) {
+            String name = json.getString("name");
+            String type = json.getString("type");
+            float duration = json.getFloat("duration");
+            EnemyPath path;
+            if (type.equals("spline")) {
+                path = EnemyPath.spline(name, duration, json.require("points").asFloatArray());
+            } else if (type.equals("sine")) {
+                path = EnemyPath.sine(name, duration, json.getFloat("x"), json.getFloat("top"), json.getFloat("bottom"),
+                        json.getFloat("amplitude"), json.getFloat("cycles"));
+            } else {
+                throw new GdxRuntimeException("Unknown path type: " + type + " (" + file.path() + ")");
+            }
+            level.paths.put(name, path);
+        }
+
+        for (JsonValue json = root.require("waves").child; json != null; json = json.next) {
+            Wave wave = new Wave();
+            wave.time = json.getFloat("time");
+            wave.path = level.path(json.getString("path"));
+            wave.count = json.getInt("count", 1);
+            wave.interval = json.getFloat("interval", 0);
+            wave.spacing = json.getFloat("spacing", 0);
+            wave.fire = json.getBoolean("fire", true);
+            level.waves.add(wave);
+        }
+        level.waves.sort(new Comparator<Wave>() {
+            @Override
+            public int compare(Wave a, Wave b) {
+                return Float.compare(a.time, b.time);
+            }
+        });
+        return level;
+    }
+
+    EnemyPath path(String name) {
+        EnemyPath path = paths.get(name);
+        if (path == null) throw new GdxRuntimeException("Path not found: " + name + " (" + this.name + ")");
+        return path;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+
+// 透明でない区画の表(マスク)を付けたテクスチャ (MaskedTextureLoaderで読み込む)
+// マスクは読み込みのスレッドで展開した画像から作るので、描画スレッドで画像を読み直さない
+final class MaskedTexture implements Disposable {
+
+    final Texture texture;
+    final boolean[] tiles;      // ParallaxBackground.TILE_SIZE四方の区画ごとに、透明でない画素があるか (行は画像の下から数える)
+
+    MaskedTexture(Texture texture, boolean[] tiles) {
+        this.texture = texture;
+        this.tiles = tiles;
+    }
+
+    @Override
+    public void dispose() {
+        texture.dispose();
+    }
+}
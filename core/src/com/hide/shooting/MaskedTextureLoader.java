@@ -0,0 +1,54 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+
+// 背景の画像をMaskedTextureとして読み込むAssetManagerのローダー
+// 画像の展開とマスクの作成は読み込みのスレッド(loadAsync)で行い、描画スレッド(loadSync)ではGLへの転送だけを行う
+// 展開した画像はそのままテクスチャに渡すので、画像を2回展開しない
+// (テクスチャはファイルから作ったものと同じく、GLのコンテキストが失われたらファイルから読み直される)
+final class MaskedTextureLoader extends AsynchronousAssetLoader<MaskedTexture, MaskedTextureLoader.Parameter> {
+
+    static final class Parameter extends AssetLoaderParameters<MaskedTexture> {
+        Texture.TextureFilter minFilter = Texture.TextureFilter.Nearest;
+        Texture.TextureFilter magFilter = Texture.TextureFilter.Nearest;
+    }
+
+    private FileTextureData data;
+    private boolean[] tiles;
+
+    MaskedTextureLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, Parameter parameter) {
+        Pixmap pixmap = new Pixmap(file);
+        tiles = ParallaxBackground.tileMask(pixmap);
+        data = new FileTextureData(file, pixmap, null, false);  // 転送後にpixmapを破棄する
+    }
+
+    @Override
+    public MaskedTexture loadSync(AssetManager manager, String fileName, FileHandle file, Parameter parameter) {
+        Texture texture = new Texture(data);
+        if (parameter != null) texture.setFilter(parameter.minFilter, parameter.magFilter);
+        MaskedTexture result = new MaskedTexture(texture, tiles);
+        data = null;
+        tiles = null;
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, Parameter parameter) {
+        return null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.nio.ByteBuffer;
+
+// 縦にスクロールする多重背景 (パララックス)
+// 背景の画像を動かすのではなく、画像の表示位置(テクスチャ座標)をずらして描画し、画像の端まで来たら先頭に戻って続けて描画する
+// 画面が途切れることはなく、アクションも使わない
+//
+// 星空の画像はほとんどが透明なので、画像を小さな区画(TILE_SIZE四方)に分け、何も描かれていない区画は描画しない
+// (横に並んだ描画する区画は1つの四角形にまとめる。区画の表(マスク)は読み込み時にtileMask()で作っておく)
+final class ParallaxBackground extends Actor {
+
+    static final int TILE_SIZE = 32;
+
+    // 背景の1枚分
+    private static final class Layer {
+
+        final Texture texture;
+        final float speed;          // 1秒あたりにスクロールする量
+        float scroll;               // 現在のスクロール量 (0〜画像の高さ)
+        final int rows;             // 区画の行数 (画像の下から数える)
+        final int[] rowStarts;      // 行ごとのspansの開始位置 (rows + 1個)
+        final int[] spans;          // 描画する範囲 (x, 幅)の組
+
+        Layer(Texture texture, float speed, int rows, int[] rowStarts, int[] spans) {
+            this.texture = texture;
+            this.speed = speed;
+            this.rows = rows;
+            this.rowStarts = rowStarts;
+            this.spans = spans;
+        }
+    }
+
+    private final Array<Layer> layers = new Array<Layer>();
+    private int visibleLayers = Integer.MAX_VALUE;  // 描画する層の数 (奥から数える)
+
+    ParallaxBackground(float width, float height) {
+        setSize(width, height);
+    }
+
+    // 背景を1枚追加する (後に追加したものほど手前に描画される)
+    // visibleはtileMask()で作った区画の表、speedは1秒あたりに下へスクロールする量
+    void addLayer(Texture texture, boolean[] visible, float speed) {
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        if (visible.length != columns * rows) throw new GdxRuntimeException("Tile mask doesn't match texture: " + visible.length + " != " + columns + "x" + rows);
+
+        int[] rowStarts = new int[rows + 1];
+        IntArray spans = new IntArray();
+        for (int row = 0; row < rows; row++) {
+            rowStarts[row] = spans.size;
+            int column = 0;
+            while (column < columns) {
+                if (!visible[row * columns + column]) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < columns && visible[row * columns + column]) column++;
+                int x = start * TILE_SIZE;
+                spans.add(x);
+                spans.add(Math.min(column * TILE_SIZE, width) - x);
+            }
+        }
+        rowStarts[rows] = spans.size;
+        layers.add(new Layer(texture, speed, rows, rowStarts, spans.toArray()));
+    }
+
+    // 奥からcount層だけを描画する (描画しない層もスクロールは続けるので、戻した時に位置が飛ばない)
+    void setVisibleLayers(int count) {
+        visibleLayers = count;
+    }
+
+    int getLayerCount() {
+        return layers.size;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        for (int i = 0; i < layers.size; i++) {
+            Layer layer = layers.get(i);
+            int height = layer.texture.getHeight();
+            layer.scroll = (layer.scroll + layer.speed * delta) % height;
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        batch.setColor(1, 1, 1, parentAlpha);
+        float screenHeight = getHeight();
+        for (int i = 0, n = Math.min(layers.size, visibleLayers); i < n; i++) {
+            Layer layer = layers.get(i);
+            int height = layer.texture.getHeight();
+            // 画像の高さは画面の高さ以上なので、画像の終わりと次の画像の始まりの2つ分を描画すれば画面が埋まる
+            drawLayer(batch, layer, getY() - layer.scroll, screenHeight);
+            drawLayer(batch, layer, getY() - layer.scroll + height, screenHeight);
+        }
+    }
+
+    // 画像の下端がbaseYに来るように、画面に入る区画の行だけを描画する
+    private void drawLayer(Batch batch, Layer layer, float baseY, float screenHeight) {
+        int height = layer.texture.getHeight();
+        float bottom = getY();
+        int first = Math.max(0, (int)Math.floor((bottom - baseY) / TILE_SIZE));
+        int last = Math.min(layer.rows - 1, (int)Math.floor((bottom + screenHeight - baseY) / TILE_SIZE));
+        int[] spans = layer.spans;
+        for (int row = first; row <= last; row++) {
+            int rowBottom = row * TILE_SIZE;
+            int rowHeight = Math.min(TILE_SIZE, height - rowBottom);
+            int srcY = height - rowBottom - rowHeight;  // テクスチャ座標は画像の上から数える
+            float y = baseY + rowBottom;
+            for (int s = layer.rowStarts[row]; s < layer.rowStarts[row + 1]; s += 2) {
+                int x = spans[s];
+                int w = spans[s + 1];
+                batch.draw(layer.texture, getX() + x, y, w, rowHeight, x, srcY, w, rowHeight, false, false);
+            }
+        }
+    }
+
+    // 区画ごとに、透明でない画素があるかを調べる (行は画像の下から数える)
+    // GLを使わないので、読み込みのスレッドから呼び出せる。透明度のない画像の場合は、全ての区画を描画する
+    static boolean[] tileMask(Pixmap pixmap) {
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        boolean[] visible = new boolean[columns * rows];
+        if (pixmap.getFormat() != Pixmap.Format.RGBA8888) {
+            for (int i = 0; i < visible.length; i++) visible[i] = true;
+            return visible;
+        }
+        // 画素ごとにgetPixel()を呼ぶと遅いので、画素データを直接読む (1画素4バイトで、4バイト目が透明度)
+        ByteBuffer pixels = pixmap.getPixels();
+        for (int y = 0; y < height; y++) {
+            int rowOffset = ((height - 1 - y) / TILE_SIZE) * columns;
+            int lineStart = y * width * 4;
+            for (int x = 0; x < width; x++) {
+                int index = rowOffset + x / TILE_SIZE;
+                if (!visible[index] && pixels.get(lineStart + x * 4 + 3) != 0) visible[index] = true;
+            }
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hide.shooting;
+
+// 1回の更新(World.step)に渡すプレイヤーの入力
+// 入力を端末から直接読まずにこのクラス経由で渡すことで、シミュレーションを端末なしで動かせるようにする
+final class PlayerInput {
+
+    float accelX;       // 端末の横方向の傾き
+    float accelY;       // 端末の縦方向の傾き
+    int fire;           // 前回の更新からのビーム発射(タッチアップ)の回数
+    boolean touched;    // 画面がタッチされているか
+    boolean restart;    // リスタートボタンが押されたか
+    int throttle;       // 敵の出現・発射を抑える段階 (0なら抑えない。端末の負荷に応じてFrameGovernorが決める)
+
+    // 1回の更新で使い切る入力(発射・リスタート)を消す
+    void consume() {
+        fire = 0;
+        restart = false;
+    }
+
+    void set(PlayerInput input) {
+        accelX = input.accelX;
+        accelY = input.accelY;
+        fire = input.fire;
+        touched = input.touched;
+        restart = input.restart;
+        throttle = input.throttle;
+    }
+}
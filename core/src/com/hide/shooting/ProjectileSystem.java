@@ -0,0 +1,169 @@
+package com.hide.shooting;
+
+// 弾(プレイヤーのビーム・敵のビーム)をまとめて管理するクラス
+// 弾ごとにActorを作らず、位置・速度・残り時間・種類をプリミティブ型の配列で持ち、1つのループで更新する
+// 弾を削除する時は末尾の弾を空いた位置に移すので、弾の並び順は保たれない
+// 更新は移動(integrate)と削除(compact)に分かれていて、移動は弾ごとに独立しているので範囲を分けて並列に実行できる
+final class ProjectileSystem {
+
+    final int capacity;
+    final float[] x;
+    final float[] y;
+    final float[] prevX;    // 1つ前のティックの位置 (描画時の補間と、移動した区間での衝突判定に使う)
+    final float[] prevY;
+    final float[] vx;
+    final float[] vy;
+    final float[] life;     // 残り時間 (秒)。0以下になったら削除する
+    final int[] kind;       // 弾の種類 (EntityKindのordinal)
+    private final boolean[] expired;    // 移動の結果、削除することになった弾
+    private int size;
+
+    private final float[] widths = new float[EntityKind.VALUES.length];
+    private final float[] heights = new float[EntityKind.VALUES.length];
+    private final int[] counts = new int[EntityKind.VALUES.length];     // 種類ごとの弾の数
+    private final float worldWidth;
+    private final float worldHeight;
+    private static final float MARGIN = 256;    // 画面外でも、この範囲内にいる弾は削除しない (画面上端の外にいる敵機が撃った弾のため)
+    private int dropped;    // 上限に達したため発射できなかった弾の数
+    private int spawned;    // 発射した弾の数 (生成からの合計)
+
+    ProjectileSystem(int capacity, float worldWidth, float worldHeight) {
+        this.capacity = capacity;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        x = new float[capacity];
+        y = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new float[capacity];
+        kind = new int[capacity];
+        expired = new boolean[capacity];
+    }
+
+    // 種類ごとの弾の大きさを設定する
+    void setSize(EntityKind kind, float width, float height) {
+        widths[kind.ordinal()] = width;
+        heights[kind.ordinal()] = height;
+    }
+
+    // 弾を発射する。上限に達している場合は発射せずにfalseを返す
+    boolean spawn(EntityKind kind, float x, float y, float vx, float vy, float life) {
+        if (size == capacity) {
+            dropped++;
+            return false;
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        prevX[i] = x;
+        prevY[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.life[i] = life;
+        this.kind[i] = kind.ordinal();
+        counts[kind.ordinal()]++;
+        spawned++;
+        return true;
+    }
+
+    // 全ての弾を移動させ、時間切れの弾と画面外に遠く離れた弾を削除する
+    void update(float delta) {
+        integrate(0, size, delta);
+        compact();
+    }
+
+    // start〜endの弾を移動させ、削除する弾に印を付ける
+    // 他の範囲の弾には触れないので、範囲が重ならなければ複数のスレッドから同時に呼び出せる
+    void integrate(int start, int end, float delta) {
+        float[] x = this.x, y = this.y, prevX = this.prevX, prevY = this.prevY, vx = this.vx, vy = this.vy, life = this.life;
+        int[] kind = this.kind;
+        boolean[] expired = this.expired;
+        for (int i = start; i < end; i++) {
+            float px = x[i] + vx[i] * delta;
+            float py = y[i] + vy[i] * delta;
+            float remaining = life[i] - delta;
+            int k = kind[i];
+            expired[i] = remaining <= 0 || px + widths[k] < -MARGIN || px > worldWidth + MARGIN
+                    || py + heights[k] < -MARGIN || py > worldHeight + MARGIN;
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            x[i] = px;
+            y[i] = py;
+            life[i] = remaining;
+        }
+    }
+
+    // integrate()で印を付けた弾を削除する
+    // 先頭から順に、末尾の弾を空いた位置に移すので、移動と削除を1つのループで行った場合と同じ並び順になる
+    void compact() {
+        boolean[] expired = this.expired;
+        for (int i = 0; i < size; ) {
+            if (expired[i]) {
+                remove(i);  // 末尾の弾が移ってきたので、同じ位置をもう一度確かめる
+            } else {
+                i++;
+            }
+        }
+    }
+
+    // i番目の弾を削除する (末尾の弾をi番目に移す)
+    void remove(int i) {
+        counts[kind[i]]--;
+        int last = --size;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            prevX[i] = prevX[last];
+            prevY[i] = prevY[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            life[i] = life[last];
+            kind[i] = kind[last];
+            expired[i] = expired[last];
+        }
+    }
+
+    // 指定した種類の弾を全て削除する
+    void removeAll(EntityKind kind) {
+        int k = kind.ordinal();
+        for (int i = size - 1; i >= 0; i--) {
+            if (this.kind[i] == k) remove(i);
+        }
+    }
+
+    void clear() {
+        size = 0;
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // 指定した種類の弾の数
+    int count(EntityKind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    float width(int i) {
+        return widths[kind[i]];
+    }
+
+    float height(int i) {
+        return heights[kind[i]];
+    }
+
+    EntityKind kindOf(int i) {
+        return EntityKind.VALUES[kind[i]];
+    }
+
+    int getDropped() {
+        return dropped;
+    }
+
+    int getSpawned() {
+        return spawned;
+    }
+}
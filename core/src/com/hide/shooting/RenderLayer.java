@@ -0,0 +1,22 @@
+package com.hide.shooting;
+
+// 描画のレイヤー (奥から手前の順)
+// ステージにはレイヤーごとのGroup(LayerGroup)だけを置き、アクターは必ずどれかのレイヤーに追加する
+// 追加した順序ではなくレイヤーで前後が決まるので、後から追加した爆発がスコアの上に描画されることはない
+enum RenderLayer {
+    BACKGROUND(false),          // 背景 (奥の層から順に描画するので並べ替えない)
+    ENEMIES(true),              // 敵機
+    ENEMY_PROJECTILES(true),    // 敵のビーム
+    PLAYER_PROJECTILES(true),   // プレイヤーのビーム
+    PLAYER(true),               // スペースシップ
+    EFFECTS(true),              // 爆発
+    HUD(true);                  // スコア・残り距離・メッセージ・ボタン・計測結果
+
+    static final RenderLayer[] VALUES = values();
+
+    final boolean sortByTexture;    // レイヤー内のアクターをテクスチャの順に並べ替えるか
+
+    RenderLayer(boolean sortByTexture) {
+        this.sortByTexture = sortByTexture;
+    }
+}
@@ -0,0 +1,115 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// 1回のプレイの記録 (リプレイ)
+// 乱数の種・ステージ(Level)のファイル名と、ティックごとのプレイヤーの入力をバイト列で持つ。同じ種から同じ入力を与えれば、シミュレーションは同じ結果になる
+// 確認用に、一定のティックごとのシミュレーションの状態のハッシュ値(World.stateHash)と、最後のスコアも記録する
+//
+// ティックごとの入力の形式:
+//   1バイト目: bit0 タッチ中, bit1 リスタート, bit2 傾きが前のティックから変わった, bit3 抑制の段階が変わった, bit4〜7 ビーム発射の回数(最大15)
+//   傾きが変わった場合のみ、続けて横方向・縦方向の傾きをshort(ACCEL_QUANTUM単位)で2つ
+//   抑制の段階(PlayerInput.throttle)が変わった場合のみ、続けて新しい段階を1バイト
+final class Replay {
+
+    static final int MAGIC = 0x53485250;    // "SHRP"
+    static final int VERSION = 6;     // 形式や状態のハッシュ値の計算方法を変えたら上げる
+    static final float ACCEL_QUANTUM = .01f;    // 記録する傾きの精度
+    static final int MAX_FIRE = 15;             // 1ティックに記録できるビーム発射の回数
+    static final int MAX_THROTTLE = 255;        // 記録できる抑制の段階
+
+    static final int FLAG_TOUCHED = 1;
+    static final int FLAG_RESTART = 1 << 1;
+    static final int FLAG_ACCEL = 1 << 2;
+    static final int FLAG_THROTTLE = 1 << 3;
+    static final int FIRE_SHIFT = 4;
+
+    final Difficulty difficulty;
+    final long seed;
+    final String level;             // ステージのファイルのパス (ランダムに敵が出現する場合は空文字列)
+    final int tickRate;
+    final int checkpointInterval;   // 状態のハッシュ値を記録する間隔 (ティック数)
+
+    byte[] inputs = new byte[1024];
+    int inputSize;                  // inputsの使用中のバイト数
+    int ticks;                      // 記録したティック数
+    final IntArray checkpoints = new IntArray();    // checkpointIntervalティックごとの状態のハッシュ値
+    int finalScore;
+    int finalHash;
+
+    Replay(Difficulty difficulty, long seed, String level, int tickRate, int checkpointInterval) {
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.level = level;
+        this.tickRate = tickRate;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    // 傾きを記録する精度に丸める (記録時にシミュレーションへ渡す値と再生時の値を一致させるため)
+    static short quantize(float accel) {
+        float q = Math.round(accel / ACCEL_QUANTUM);
+        return (short)Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, q));
+    }
+
+    static float dequantize(short value) {
+        return value * ACCEL_QUANTUM;
+    }
+
+    void writeByte(int value) {
+        if (inputSize == inputs.length) {
+            byte[] grown = new byte[inputs.length * 2];
+            System.arraycopy(inputs, 0, grown, 0, inputSize);
+            inputs = grown;
+        }
+        inputs[inputSize++] = (byte)value;
+    }
+
+    void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(difficulty.name());
+        out.writeLong(seed);
+        out.writeUTF(level);
+        out.writeInt(tickRate);
+        out.writeInt(ticks);
+        out.writeInt(inputSize);
+        out.write(inputs, 0, inputSize);
+        out.writeInt(checkpointInterval);
+        out.writeInt(checkpoints.size);
+        for (int i = 0; i < checkpoints.size; i++) out.writeInt(checkpoints.get(i));
+        out.writeInt(finalScore);
+        out.writeInt(finalHash);
+        out.flush();
+    }
+
+    static Replay read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) throw new GdxRuntimeException("Not a replay file");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new GdxRuntimeException("Unsupported replay version: " + version);
+        Difficulty difficulty = Difficulty.valueOf(in.readUTF());
+        long seed = in.readLong();
+        String level = in.readUTF();
+        int tickRate = in.readInt();
+        int ticks = in.readInt();
+        byte[] inputs = new byte[in.readInt()];
+        in.readFully(inputs);
+        Replay replay = new Replay(difficulty, seed, level, tickRate, in.readInt());
+        replay.ticks = ticks;
+        replay.inputs = inputs;
+        replay.inputSize = inputs.length;
+        int checkpoints = in.readInt();
+        for (int i = 0; i < checkpoints; i++) replay.checkpoints.add(in.readInt());
+        replay.finalScore = in.readInt();
+        replay.finalHash = in.readInt();
+        return replay;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hide.shooting;
+
+// リプレイに記録された入力を1ティックずつ取り出す
+final class ReplayPlayer {
+
+    final Replay replay;
+    private int position;   // 次に読むバイトの位置
+    private int tick;       // 取り出したティック数
+    private float accelX;
+    private float accelY;
+    private int throttle;
+
+    ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    boolean hasNext() {
+        return tick < replay.ticks;
+    }
+
+    // 次のティックの入力をinputに設定する
+    void next(PlayerInput input) {
+        byte[] inputs = replay.inputs;
+        int flags = inputs[position++] & 0xff;
+        if ((flags & Replay.FLAG_ACCEL) != 0) {
+            accelX = Replay.dequantize((short)(((inputs[position] & 0xff) << 8) | (inputs[position + 1] & 0xff)));
+            accelY = Replay.dequantize((short)(((inputs[position + 2] & 0xff) << 8) | (inputs[position + 3] & 0xff)));
+            position += 4;
+        }
+        if ((flags & Replay.FLAG_THROTTLE) != 0) throttle = inputs[position++] & 0xff;
+        input.accelX = accelX;
+        input.accelY = accelY;
+        input.touched = (flags & Replay.FLAG_TOUCHED) != 0;
+        input.restart = (flags & Replay.FLAG_RESTART) != 0;
+        input.fire = flags >>> Replay.FIRE_SHIFT;
+        input.throttle = throttle;
+        tick++;
+    }
+
+    // 取り出したティック数 (1から始まる)
+    int getTick() {
+        return tick;
+    }
+
+    // 直前に取り出したティックの後の状態が、記録時のハッシュ値と一致するか
+    // (記録されていないティックではtrueを返す)
+    boolean matchesCheckpoint(World world) {
+        if (tick % replay.checkpointInterval != 0) return true;
+        int index = tick / replay.checkpointInterval - 1;
+        if (index >= replay.checkpoints.size) return true;
+        return replay.checkpoints.get(index) == world.stateHash();
+    }
+}
@@ -0,0 +1,61 @@
+package com.hide.shooting;
+
+// プレイ中の入力をリプレイに記録する
+// World.step()の直前にrecord()、直後にcheckpoint()を呼び出し、保存する前にfinish()を呼び出す
+final class ReplayRecorder {
+
+    final Replay replay;
+    private short lastAccelX;
+    private short lastAccelY;
+    private int lastThrottle;
+
+    ReplayRecorder(Replay replay) {
+        this.replay = replay;
+    }
+
+    // 入力を記録する
+    // 記録できる精度に丸めた値でinputを書き換えるので、記録中のプレイと再生の結果が一致する
+    void record(PlayerInput input) {
+        short accelX = Replay.quantize(input.accelX);
+        short accelY = Replay.quantize(input.accelY);
+        int fire = Math.min(input.fire, Replay.MAX_FIRE);
+        input.accelX = Replay.dequantize(accelX);
+        input.accelY = Replay.dequantize(accelY);
+        input.fire = fire;
+        int throttle = Math.max(0, Math.min(input.throttle, Replay.MAX_THROTTLE));
+        input.throttle = throttle;
+
+        boolean accelChanged = replay.ticks == 0 || accelX != lastAccelX || accelY != lastAccelY;
+        int flags = fire << Replay.FIRE_SHIFT;
+        if (input.touched) flags |= Replay.FLAG_TOUCHED;
+        if (input.restart) flags |= Replay.FLAG_RESTART;
+        if (accelChanged) flags |= Replay.FLAG_ACCEL;
+        if (throttle != lastThrottle) flags |= Replay.FLAG_THROTTLE;
+        replay.writeByte(flags);
+        if (accelChanged) {
+            replay.writeByte(accelX >> 8);
+            replay.writeByte(accelX);
+            replay.writeByte(accelY >> 8);
+            replay.writeByte(accelY);
+            lastAccelX = accelX;
+            lastAccelY = accelY;
+        }
+        if (throttle != lastThrottle) {
+            replay.writeByte(throttle);
+            lastThrottle = throttle;
+        }
+        replay.ticks++;
+    }
+
+    // 更新後のシミュレーションの状態を記録する
+    // 状態のハッシュ値は全ての弾を調べるので、毎ティックではなくcheckpointIntervalティックごとに計算する
+    void checkpoint(World world) {
+        if (replay.ticks % replay.checkpointInterval == 0) replay.checkpoints.add(world.stateHash());
+    }
+
+    // 保存する時点の最終的なスコアと状態を記録する
+    void finish(World world) {
+        replay.finalScore = world.getScore();
+        replay.finalHash = world.stateHash();
+    }
+}
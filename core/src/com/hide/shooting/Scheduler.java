@@ -0,0 +1,159 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Pool;
+
+// シミュレーションの時間で動くタイマー
+// 予定した処理(Runnable)を、実行時刻の早い順に並ぶ二分ヒープで管理し、update()の中で同じスレッドから実行する
+// 予定はプールで再利用するので、登録してもオブジェクトを生成しない (Runnableは呼び出し側で使い回すこと)
+// 同じ時刻の予定は登録順に実行する
+// 時刻は増え続けるのでdoubleで持ち (floatでは長時間プレイすると1ティック分の加算が丸められる)、reset()で0に戻す
+final class Scheduler {
+
+    // 登録された予定
+    private static final class Event {
+        double time;        // 実行する時刻
+        int id;             // 登録順の番号 (取り消しと、同じ時刻の予定の順序に使う)
+        Runnable task;
+    }
+
+    private final Pool<Event> pool = new Pool<Event>() {
+        @Override
+        protected Event newObject() {
+            return new Event();
+        }
+    };
+    private Event[] heap = new Event[16];
+    private int size;
+    private int nextId = 1;
+    private double time;                // スケジューラの現在時刻
+    private float timeScale = 1;        // 時間の進む速さ (1で通常、0.5で半分の速さ)
+    private boolean paused;
+
+    // delay秒後にtaskを実行する。取り消し用の番号を返す
+    int schedule(float delay, Runnable task) {
+        Event event = pool.obtain();
+        event.time = time + Math.max(0, delay);
+        event.id = nextId++;
+        event.task = task;
+        if (size == heap.length) {
+            Event[] grown = new Event[heap.length * 2];
+            System.arraycopy(heap, 0, grown, 0, size);
+            heap = grown;
+        }
+        heap[size] = event;
+        siftUp(size++);
+        return event.id;
+    }
+
+    // 予定を取り消す。取り消せた場合はtrueを返す (実行済みの予定は取り消せない)
+    boolean cancel(int id) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i].id == id) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 全ての予定を取り消す
+    void cancelAll() {
+        for (int i = 0; i < size; i++) {
+            free(heap[i]);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    // 全ての予定を取り消し、時刻を0に戻す (ゲームのリスタート時に呼び出す)
+    void reset() {
+        cancelAll();
+        time = 0;
+    }
+
+    // 時間をdelta秒進め、実行時刻になった予定を順に実行する
+    // 実行中の処理から新たに登録された予定も、実行時刻になっていれば同じ呼び出しの中で実行する
+    void update(float delta) {
+        if (paused) return;
+        time += delta * timeScale;
+        while (size > 0 && heap[0].time <= time) {
+            Event event = heap[0];
+            Runnable task = event.task;
+            removeAt(0);
+            task.run();
+        }
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    double getTime() {
+        return time;
+    }
+
+    // 実行を待っている予定の数
+    int size() {
+        return size;
+    }
+
+    private void removeAt(int i) {
+        Event removed = heap[i];
+        int last = --size;
+        if (i != last) {
+            heap[i] = heap[last];
+            heap[last] = null;
+            // 末尾から移した予定を正しい位置に移動する
+            if (i > 0 && earlier(heap[i], heap[(i - 1) / 2])) {
+                siftUp(i);
+            } else {
+                siftDown(i);
+            }
+        } else {
+            heap[last] = null;
+        }
+        free(removed);
+    }
+
+    private void free(Event event) {
+        event.task = null;
+        pool.free(event);
+    }
+
+    private void siftUp(int i) {
+        Event event = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!earlier(event, heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    private void siftDown(int i) {
+        Event event = heap[i];
+        int half = size / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && earlier(heap[right], heap[child])) child = right;
+            if (!earlier(heap[child], event)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = event;
+    }
+
+    private static boolean earlier(Event a, Event b) {
+        return a.time < b.time || (a.time == b.time && a.id < b.id);
+    }
+}
@@ -1,32 +1,31 @@
 package com.hide.shooting;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.GlyphLayout;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.TimeUtils;
-import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 
-// アクター(actor)のアクション(action)を簡単に記述するためのstatic import
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
+// アクター(actor)のアクション(action)を簡単に記述するためのstatic import
 import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
 
 // ゲームアセット
@@ -41,527 +40,789 @@ import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
 // [BGM] http://www.freesound.org/people/orangefreesounds/sounds/326479/
 public class Shooting extends ApplicationAdapter {
 
-    // ゲーム中のキャラクター用のクラスを定義する
-    private static final class GameSprite extends Image {
+    // シミュレーション上のキャラクター(スペースシップか敵機)を描画するためのクラスを定義する
+    // 描画用の状態の写し(WorldSnapshot)から、1つ前のティックと最新のティックの位置を補間して描画する
+    // スペースシップと敵機は別のレイヤーに描画するので、kindで描画する方を指定する
+    private final class EntityLayer extends Actor implements LayerGroup.Textured {
 
-        String name = "";
-        Rectangle bounds = new Rectangle();
+        private final EntityKind kind;
+        private final TextureRegion region;
 
-        private GameSprite(Texture texture) {
-            super(texture);
-            bounds.setWidth(getWidth());
-            bounds.setHeight(getHeight());
+        EntityLayer(EntityKind kind, TextureRegion region) {
+            this.kind = kind;
+            this.region = region;
         }
 
         @Override
-        public void draw (Batch batch, float parentAlpha) {
-            super.draw(batch, parentAlpha);
-            bounds.setPosition(getX(), getY());
+        public Texture getTexture() {
+            return region.getTexture();
         }
 
-        private boolean overlaps(GameSprite sprite) {
-            return bounds.overlaps(sprite.bounds);
+        @Override
+        public void draw(Batch batch, float parentAlpha) {
+            batch.setColor(1, 1, 1, parentAlpha);
+            WorldSnapshot s = snapshot;
+            float alpha = s.alpha;
+            if (kind == EntityKind.PLAYER) {
+                if (s.playerAlive) drawEntity(batch, region, s.playerPrevX, s.playerPrevY, s.playerX, s.playerY, kind, alpha);
+                return;
+            }
+            for (int i = 0; i < s.enemyCount; i++) {
+                drawEntity(batch, region, s.enemyPrevX[i], s.enemyPrevY[i], s.enemyX[i], s.enemyY[i], kind, alpha);
+            }
+        }
+
+        private void drawEntity(Batch batch, TextureRegion region, float prevX, float prevY, float x, float y, EntityKind kind, float alpha) {
+            batch.draw(region, prevX + (x - prevX) * alpha, prevY + (y - prevY) * alpha, kind.width, kind.height);
         }
     }
 
-    // ゲーム中に表示するテキスト用のクラスを定義する
-    private static final class GameText extends Actor {
+    // 弾(ProjectileSystem)をまとめて描画するためのクラスを定義する
+    // 弾ごとのActorを持たず、描画用の状態の写しにあるkindの種類の弾を1回のループでバッチに描画する
+    // (敵のビームとプレイヤーのビームは別のレイヤーに描画する)
+    private final class ProjectileLayer extends Actor implements LayerGroup.Textured {
+
+        private final int kind;
+        private final TextureRegion region;
+
+        ProjectileLayer(EntityKind kind, TextureRegion region) {
+            this.kind = kind.ordinal();
+            this.region = region;
+        }
 
-        String text = "";
-        BitmapFont font = new BitmapFont(Gdx.files.internal("88zen.fnt"));
+        @Override
+        public Texture getTexture() {
+            return region.getTexture();
+        }
 
         @Override
         public void draw(Batch batch, float parentAlpha) {
-            super.draw(batch, parentAlpha);
-            font.draw(batch, text, getX(), getY());
+            WorldSnapshot s = snapshot;
+            if (s.projectileCounts[kind] == 0) return;
+            batch.setColor(1, 1, 1, parentAlpha);
+            float[] x = s.projectileX, y = s.projectileY, prevX = s.projectilePrevX, prevY = s.projectilePrevY;
+            int[] kinds = s.projectileKind;
+            float alpha = s.alpha;
+            float width = region.getRegionWidth(), height = region.getRegionHeight();
+            for (int i = 0, n = s.projectileCount; i < n; i++) {
+                if (kinds[i] != kind) continue;
+                batch.draw(region, prevX[i] + (x[i] - prevX[i]) * alpha, prevY[i] + (y[i] - prevY[i]) * alpha, width, height);
+            }
         }
     }
 
     // ゲームの残り距離を表示するためのクラスを定義する
-    private static final class DistanceMeter extends Actor {
+    // 白い画像(Assets.WHITE)に色を付けてバッチで描画するので、描画の途中でバッチを区切らない
+    private static final class DistanceMeter extends Actor implements LayerGroup.Textured {
 
         int currentDistance = 0;
-        private ShapeRenderer renderer = new ShapeRenderer();
+        private final TextureRegion white;
 
-        public DistanceMeter(float x, float y, float width, float height) {
+        public DistanceMeter(TextureRegion white, float x, float y, float width, float height) {
             super();
+            this.white = white;
             setPosition(x, y);
             setWidth(width);
             setHeight(height);
         }
 
+        @Override
+        public Texture getTexture() {
+            return white.getTexture();
+        }
+
+        @Override
+        public void draw(Batch batch, float parentAlpha) {
+            batch.setColor(1, 1, 1, parentAlpha);
+            batch.draw(white, getX(), getY(), getWidth(), getHeight());
+            batch.setColor(26 / 255.f, 188 / 255.f, 156 / 255.f, parentAlpha);
+            batch.draw(white, getX(), getY(), getWidth(), getHeight() * currentDistance / World.GOAL_DISTANCE);
+            batch.setColor(1, 1, 1, 1);
+        }
+    }
+
+    // 素材の読み込み中に、進み具合をバーで表示するためのクラスを定義する
+    // アトラスはまだできていないので、1画素の白いテクスチャを自分で作って描画する
+    private static final class LoadingBar extends Actor {
+
+        float progress;     // 0〜1
+        private final Texture white;
+
+        LoadingBar(float x, float y, float width, float height) {
+            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+            pixmap.setColor(Color.WHITE);
+            pixmap.fill();
+            white = new Texture(pixmap);
+            pixmap.dispose();
+            setBounds(x, y, width, height);
+        }
+
+        @Override
+        public void draw(Batch batch, float parentAlpha) {
+            batch.setColor(1, 1, 1, .3f * parentAlpha);
+            batch.draw(white, getX(), getY(), getWidth(), getHeight());
+            batch.setColor(26 / 255.f, 188 / 255.f, 156 / 255.f, parentAlpha);
+            batch.draw(white, getX(), getY(), getWidth() * progress, getHeight());
+            batch.setColor(1, 1, 1, 1);
+        }
+
+        void dispose() {
+            white.dispose();
+        }
+    }
+
+    // プロファイラの集計結果を画面に重ねて表示するためのクラスを定義する
+    // 表示内容の作り直しは一定間隔でのみ行う
+    private static final class ProfilerOverlay extends Actor implements LayerGroup.Textured {
+
+        static final float REFRESH_INTERVAL = .5f;
+        private final FrameProfiler profiler;
+        private final BitmapFont font = new BitmapFont();   // 英数字だけなのでlibGDX組み込みのフォントを使う
+        private final StringBuilder text = new StringBuilder(1024);
+        private float refreshTimer;
+
+        ProfilerOverlay(FrameProfiler profiler) {
+            this.profiler = profiler;
+            font.getData().setScale(2);
+            font.setColor(Color.YELLOW);
+        }
+
+        @Override
+        public void act(float delta) {
+            super.act(delta);
+            refreshTimer -= delta;
+            if (refreshTimer > 0) return;
+            refreshTimer = REFRESH_INTERVAL;
+            text.setLength(0);
+            profiler.summary(text);
+        }
+
+        @Override
+        public Texture getTexture() {
+            return font.getRegion().getTexture();
+        }
+
         @Override
         public void draw(Batch batch, float parentAlpha) {
-            super.draw(batch, parentAlpha);
-            batch.end();
-            renderer.setProjectionMatrix(batch.getProjectionMatrix());
-            renderer.setTransformMatrix(batch.getTransformMatrix());
-            renderer.translate(getX(), getY(), 0);
-            renderer.begin(ShapeRenderer.ShapeType.Filled);
-            renderer.setColor(1, 1, 1, 1);
-            renderer.rect(0, 0, getWidth(), getHeight());
-            renderer.setColor(26 / 255.f, 188 / 255.f, 156 / 255.f, 1);
-            renderer.rect(0, 0, getWidth(), getHeight() * currentDistance / 100.f);
-            renderer.end();
-            batch.begin();
-        }
-    }
-
-    // ゲームの状態を管理するための列挙型を定義する
-    private enum GameStatus {
-        PLAYING,
-        GAME_WIN,
-        GAME_OVER,
-        WAIT_TO_RESTART_FROM_WIN,
-        WAIT_TO_RESTART_FROM_LOSE,
+            font.draw(batch, text, getX(), getY());
+        }
+
+        void dispose() {
+            font.dispose();
+        }
     }
 
+    static final int DEFAULT_TICK_RATE = 60;    // シミュレーションの1秒あたりの更新回数
+    static final int MAX_TICKS_PER_FRAME = 5;   // 1回の描画で追いつくために進める更新回数の上限
+    static final int REPLAY_CHECKPOINT_INTERVAL = 30;   // リプレイに状態のハッシュ値を記録する間隔 (ティック数。結果がずれた場合は、この範囲まで絞り込める)
+    static final float PROFILE_DUMP_INTERVAL = 10;      // プロファイラの集計結果を保存する間隔 (秒)
+    static final String SCORE_LABEL = "スコア: ";
+    static final int MAX_VOICES = 16;           // 同時に鳴らせる効果音の数 (Androidの既定の上限と同じ)
+    static final int MAX_THREADS = 8;           // シミュレーションに使うスレッド数の上限
+    static final int LOADING_UPDATE_MILLIS = 12;    // 読み込み中の1フレームで、GLへの転送などに使う時間の上限
+    static final float FRAME_BUDGET = .014f;    // 1フレームの処理時間の目標 (秒。60fpsの1フレームから、GPUへの転送などの分を残す)
+    static final int MAX_EXPLOSIONS_UNDER_LOAD = 8; // 負荷が高い時に同時に表示する敵の爆発の数の上限
+    static final float STATIC_EXPLOSION_TIME = .7f; // アニメーションを省いた爆発の表示時間 (秒)
+    static final int MAX_EFFECTS = 64;          // 同時に表示する爆発の数の上限 (超えたら古い爆発から再利用する)
+    static final int EXPLOSION = 0;             // 爆発の種類 (EffectSystemに渡す)
+    static final int ENEMY_EXPLOSION = 1;
+
+    private final Difficulty difficulty;    // 難易度
+    private final long seed;                // シミュレーションの乱数の種
+    private final long startTime = TimeUtils.nanoTime();   // 起動時間の計測の基準 (アプリを生成した時刻)
+    private long firstFrameTime;            // 最初のフレームを描画するまでの時間 (ナノ秒。0なら未描画)
+    private long playableTime;              // 読み込みが終わり、ゲームを遊べる最初のフレームを描画するまでの時間
+    private LoadingBar loadingBar;          // 読み込み中の進み具合
+    private final FixedTimestep timestep;   // シミュレーションを一定の時間刻みで進めるための時間管理
+    private String levelPath;               // ステージのファイル (nullならランダムに敵が出現する)
+    private String replayPath;              // リプレイの保存先 (nullなら記録しない)
+    private ReplayRecorder recorder;        // リプレイの記録
+    private FrameProfiler profiler = new FrameProfiler("");    // 処理時間の計測 (有効にした時だけ記録する)
+    private boolean profilerOverlay;        // 計測結果を画面に表示するか
+    private ProfilerOverlay overlay;
+    private int lastRenderCalls;            // 前のフレームまでのバッチの描画回数
+    private final FrameGovernor governor = new FrameGovernor(FRAME_BUDGET);    // 負荷に応じて演出と敵の密度を減らす
+    private World world;                // ゲームのシミュレーション (ゲームの状態はここで管理する)
+    private final PlayerInput input = new PlayerInput();    // 端末から読んだプレイヤーの入力
+    private final PlayerInput stepInput = new PlayerInput();    // シミュレーションに渡す入力 (フレームの始めにinputから写す)
+    private PlayerInput inputSource;    // 端末の代わりに入力を与える自動操縦 (nullなら端末から読む)
+    private int threads = 1;            // シミュレーションに使うスレッド数
+    private WorkerPool workers;         // キャラクターの更新を分担するスレッド (スレッド数が2以上の場合)
+    private BackgroundTask simulation;  // 描画と並行してシミュレーションを進めるスレッド (スレッド数が2以上の場合)
+    private int stepTicks;              // 今回のフレームで進めるティック数
+    private float stepAlpha;            // 今回のフレームの更新の後に描画する位置
+    private WorldSnapshot snapshot;     // 描画中の状態の写し
+    private WorldSnapshot nextSnapshot; // シミュレーションが書き込む状態の写し
+    private final WorldEventQueue events = new WorldEventQueue();  // シミュレーションで起きた出来事 (描画側でまとめて演出する)
+    private WorldListener presenter;    // 出来事に合わせて演出を行うリスナー
+    private Assets assets;              // 素材(テクスチャ・効果音・BGM)管理
+    private BindCountingBatch batch;    // ステージの描画用 (大量の弾を少ない回数で描画できるように大きめに確保する)
     private Stage stage;                // ゲームステージ
-    private GameSprite spaceship;       // スペースシップ (プレイヤー)
-    private GameText scoreText;         // ゲームスコア表示
+    private ParallaxBackground background;  // 星の背景
+    private final LayerGroup[] layers = new LayerGroup[RenderLayer.VALUES.length];  // 描画のレイヤー (奥から手前の順)
+    private HudText scoreText;          // ゲームスコア表示
     private DistanceMeter meter;        // 残り距離表示
     private Image youWin;               // ゲームクリア
     private Image gameOver;             // ゲームオーバー
-    private Sound beamSound;            // ビーム音
-    private Sound explosionSound;       // 爆発音
-    private Sound enemySpawnSound;      // 敵発生音
-    private Sound enemyBeamSound;       // 敵ビーム音
-    private Sound enemyExplosionSound;  // 敵爆発音
-    private Sound gameLoseSound;        // ゲームオーバー音
-    private Sound gameWinSound;         // ゲームウィン音
-    private Sound tapSound;             // タップ音
-    private Music bgm;                  // BGM
-    private Integer beamCount = 0;      // ビーム発射数 (発射数制限を設けるため)
-    private long lastEnemySpawnedTime;  // 最後に敵を発生させた時間
-    private int score = 0;              // 現在のゲームスコア
-    private GameStatus status = GameStatus.PLAYING; // ゲームステータス
-    private InputListener inputListener;            // ステージ用イベントリスナ
-    private long gameStartTime;         // ゲーム開始時刻
+    private Image restartButton;        // リスタートボタン
+    private SoundManager sounds;        // 効果音の再生管理 (同時に鳴らす数を制限する)
+    private SoundManager.Effect beamSound;              // ビーム音
+    private SoundManager.Effect explosionSound;         // 爆発音
+    private SoundManager.Effect enemySpawnSound;        // 敵発生音
+    private SoundManager.Effect enemyBeamSound;         // 敵ビーム音
+    private SoundManager.Effect enemyExplosionSound;    // 敵爆発音
+    private SoundManager.Effect gameLoseSound;          // ゲームオーバー音
+    private SoundManager.Effect gameWinSound;           // ゲームウィン音
+    private SoundManager.Effect tapSound;               // タップ音
+    private Music bgm;                  // BGM (破棄はAssetsで行う)
+    private EffectSystem effects;       // 爆発の表示 (読み込みの後に上限の分を確保しておく)
+
+    public Shooting() {
+        this(Difficulty.NORMAL);
+    }
+
+    public Shooting(Difficulty difficulty) {
+        this(difficulty, TimeUtils.millis());
+    }
+
+    public Shooting(Difficulty difficulty, long seed) {
+        this(difficulty, seed, DEFAULT_TICK_RATE);
+    }
+
+    // tickRateでシミュレーションの更新頻度を指定する (性能の低い端末では30にしても、描画は画面の更新頻度で行われる)
+    public Shooting(Difficulty difficulty, long seed, int tickRate) {
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.timestep = new FixedTimestep(tickRate, MAX_TICKS_PER_FRAME);
+    }
+
+    // フレームごとの処理時間を計測し、PROFILE_DUMP_INTERVAL秒ごとにローカルストレージの
+    // profile/<label>.csv に追記、profile/<label>.json に上書きする (create()より前に呼び出す)
+    // overlayがtrueなら計測結果を画面にも表示する
+    public void setProfiling(String label, boolean overlay) {
+        profiler = new FrameProfiler(label);
+        profiler.enabled = true;
+        profilerOverlay = overlay;
+    }
+
+    // シミュレーションに使うスレッド数を指定する (create()より前に呼び出す)
+    // 2以上にすると、敵機・弾の更新をthreads個のスレッドで分担し、描画と並行して次のフレームの更新を進める
+    // (描画は1フレーム前の更新の結果になる)。スレッド数に関係なくシミュレーションの結果は同じになる
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, Math.min(threads, MAX_THREADS));
+    }
+
+    // 敵機・弾の多い難易度(弾幕モード)の場合だけ、シミュレーションにthreads個のスレッドを使う (create()より前に呼び出す)
+    // 通常モードは敵機・弾が少なく、分担しても速くならずに描画が1フレーム遅れるだけなので、1スレッドのまま更新する
+    public void setThreadsForDenseModes(int threads) {
+        setThreads(difficulty.dense ? threads : 1);
+    }
+
+    // 端末の代わりにsourceから入力を読む (ヘッドレスでの自動操縦用)
+    // 毎フレームの始めに傾き・タッチの状態を写し、発射・リスタートを加えてからsourceの1回きりの入力を消す
+    void setInputSource(PlayerInput source) {
+        this.inputSource = source;
+    }
+
+    // assetsのステージのファイル(JSON)に従って敵を出現させる (create()より前に呼び出す)
+    public void setLevel(String path) {
+        this.levelPath = path;
+    }
+
+    // プレイをリプレイとして記録し、中断・終了時にローカルストレージのpathに保存する (create()より前に呼び出す)
+    public void setReplayPath(String path) {
+        this.replayPath = path;
+    }
 
     @Override
     public void create () {
-        stage = new Stage(new FitViewport(1080, 1776));     // ゲーム用のステージを1080x1776のサイズで作成
+        assets = new Assets();
+        assets.queue();                                     // 全ての素材の読み込みを始める (別のスレッドで読み込まれる)
+        batch = new BindCountingBatch(5460);                     // 1回の描画で送れる最大数 (libGDXの上限。弾幕モードでも描画回数を抑える)
+        stage = new Stage(new FitViewport(World.WIDTH, World.HEIGHT), batch);  // ゲーム用のステージを1080x1776のサイズで作成
         Gdx.input.setInputProcessor(stage);                 // ステージでインプット(タッチ入力など)を処理する
+        // ステージにはレイヤーだけを奥から順に置き、アクターはレイヤーに追加する
+        for (RenderLayer layer : RenderLayer.VALUES) {
+            layers[layer.ordinal()] = new LayerGroup(layer);
+            stage.addActor(layers[layer.ordinal()]);
+        }
+
+        // 読み込みが終わるまでは、画面中央に進み具合を表示する
+        loadingBar = new LoadingBar(stage.getWidth() * .2f, stage.getHeight() * .5f, stage.getWidth() * .6f, 24);
+        layer(RenderLayer.HUD).addActor(loadingBar);
+    }
+
+    // 素材を読み込み終えた後に、ゲームのシミュレーションと画面を用意する
+    private void setup() {
+        Level level = levelPath == null ? null : Level.load(Gdx.files.internal(levelPath));  // 経路はここで表にしておく
+        world = new World(difficulty, seed, level);         // ゲームのシミュレーションを用意する
+        if (threads > 1) {
+            workers = new WorkerPool(threads);
+            world.setWorkers(workers);
+            simulation = new BackgroundTask("simulation", simulate);
+        }
+        snapshot = new WorldSnapshot(world.projectiles.capacity);
+        nextSnapshot = new WorldSnapshot(world.projectiles.capacity);
+        snapshot.copyFrom(world);
+        nextSnapshot.copyFrom(world);
+        if (profiler.enabled) {
+            // シミュレーションを別のスレッドで進める場合は、更新の内訳は計測せず、更新を待った時間をSTEPに記録する
+            if (simulation == null) world.setProfiler(profiler);
+            GLProfiler.enable();                            // 描画回数とテクスチャの切り替え回数を数える
+        }
+        if (replayPath != null) {
+            recorder = new ReplayRecorder(new Replay(difficulty, seed, levelPath == null ? "" : levelPath, timestep.tickRate, REPLAY_CHECKPOINT_INTERVAL));
+        }
+        world.setListener(events);                          // 出来事は記録しておき、更新が終わった後に描画側で演出する
+        presenter = new WorldListener() {                   // シミュレーションで起きた出来事に合わせて演出を行う
+            @Override
+            void onBeamFired(World world) {
+                beamSound.play();       // ビーム発射音を鳴らす
+            }
+
+            @Override
+            void onEnemySpawned(World world, Entity enemy) {
+                enemySpawnSound.play(enemy.x + enemy.width * .5f, enemy.y);    // 遠くの敵ほど小さな音で鳴らす
+            }
+
+            @Override
+            void onEnemyFired(World world, Entity enemy) {
+                enemyBeamSound.play(enemy.x + enemy.width * .5f, enemy.y);
+            }
+
+            @Override
+            void onEnemyExploded(World world, Entity enemy) {
+                showExplosion(ENEMY_EXPLOSION, enemy);
+                enemyExplosionSound.play(enemy.x + enemy.width * .5f, enemy.y + enemy.height * .5f);
+            }
+
+            @Override
+            void onPlayerExploded(World world, Entity player) {
+                showExplosion(EXPLOSION, player);
+                explosionSound.play();
+            }
+
+            @Override
+            void onGameWin(World world) {
+                showGameWin();
+            }
+
+            @Override
+            void onGameOver(World world) {
+                showGameOver();
+            }
+
+            @Override
+            void onWaitToRestart(World world, GameStatus status) {
+                showRestart(status);
+            }
+
+            @Override
+            void onRestart(World world, GameStatus previous) {
+                setupRestart(previous);
+            }
+        };
+
+        // 処理が重くなったら演出を減らし、余裕ができたら戻す (敵の出現・発射の抑制は、毎フレームの入力でシミュレーションに渡す)
+        governor.setListener(new FrameGovernor.Listener() {
+            @Override
+            public void onLevelChanged(FrameGovernor governor, int previous) {
+                Gdx.app.log("Governor", previous + " -> " + governor);
+                background.setVisibleLayers(governor.backgroundLayers(background.getLayerCount()));
+            }
+        });
+        // 爆発は全て1つのアクターで描画する (ゲームクリアで画面上の敵機がまとめて爆発しても、アクターやアクションを生成しない)
+        effects = new EffectSystem(MAX_EFFECTS,
+                new TextureRegion[] { assets.region(Assets.EXPLOSION), assets.region(Assets.ENEMY_EXPLOSION) },
+                new Color[] { new Color(1, .8f, .4f, 1), new Color(1, .5f, .2f, 1) }, assets.region(Assets.WHITE));
+        layer(RenderLayer.EFFECTS).addActor(effects);
+
         // ステージ用のイベントリスナを定義する
-        inputListener = new InputListener() {
+        stage.addListener(new InputListener() {
             public boolean touchDown (InputEvent event, float x, float y, int pointer, int button) {
                 return true;
             }
 
             // タッチアップ(タッチして指を離したタイミング)でビームを発射する
             public void touchUp (InputEvent event, float x, float y, int pointer, int button) {
-                if (status == GameStatus.GAME_OVER ||
-                        status == GameStatus.WAIT_TO_RESTART_FROM_WIN ||
-                        status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) return;
-
-                if (beamCount < 3) {    // ビーム発射数が3発以下なら新たにビームを発射する
-                    beamCount++;        // ビーム発射数を1つ増やす
-                    GameSprite beam = new GameSprite(new Texture(Gdx.files.internal("beam.png")));    // ビーム用のアクター(actor)を用意する
-                    beam.name = "beam";
-                    // ビームがスペースシップの先端中央から発射されるように位置を設定する
-                    beam.setPosition(spaceship.getX() + spaceship.getWidth() * .5f - beam.getWidth() * .5f, spaceship.getY() + spaceship.getHeight() * .5f);
-                    beam.setZIndex(5);      // ビームがスペースシップより下に配置されるようにする
-                    beamSound.play();       // ビーム発射音を鳴らす
-                    stage.addActor(beam);   // ビーム用のアクターをゲームステージに追加する
-                    // ビーム用のアクターに以下のアクションを追加する:
-                    // 1. ステージの高さの分だけ0.5秒で前に進む
-                    // 2. ビーム発射数を1つ減らす
-                    // 3. ビーム用アクターをステージから削除する
-                    beam.addAction(sequence(
-                            moveTo(beam.getX(), beam.getY() + stage.getHeight(), .5f),
-                            run(new Runnable() {
-                                @Override
-                                public void run() {
-                                    beamCount--;
-                                }
-                            }),
-                            removeActor()
-                    ));
-                }
+                input.fire++;   // 発射するかどうかはシミュレーションがゲームの状態を見て決める
             }
-        };
-        // ステージでタッチ入力を処理するためのリスナー(listener)を追加する
-        stage.addListener(inputListener);
-
-        Image starBack = new Image(new Texture(Gdx.files.internal("star_back.png")));   // 宇宙の星(後背景)用アクター(actor)を用意する
-        starBack.setZIndex(1);          // 宇宙の星(後背景)がスペースシップやビームより下に配置されるようにする
-        // 宇宙の星(後背景)に以下のアクションを追加する:
-        // 1. ステージの高さの分だけ7秒で後に進む
-        // 2. 元の位置(x = 0, y = 0)に戻る
-        // ※ 1 → 2をずっと繰り返す
-        starBack.addAction(forever(
-            sequence(
-                moveTo(0, -stage.getHeight(), 7),
-                moveTo(0, 0)
-            )
-        ));
-        stage.addActor(starBack);   // 宇宙の星(後背景)をステージに追加する
-
-        Image starFront = new Image(new Texture(Gdx.files.internal("star_front.png")));   // 宇宙の星(前背景)用アクター(actor)を用意する
-        starFront.setZIndex(3);          // 宇宙の星(前背景)がスペースシップやビームより下に配置されるようにする (宇宙の星(後背景)よりは前に配置されるようにする)
-        // 宇宙の星(前背景)に以下のアクションを追加する:
-        // 1. ステージの高さの分だけ5秒で後に進む
-        // 2. 元の位置(x = 0, y = 0)に戻る
-        // ※ 1 → 2をずっと繰り返す
-        starFront.addAction(forever(
-            sequence(
-                moveTo(0, -stage.getHeight(), 5),
-                moveTo(0, 0)
-            )
-        ));
-        stage.addActor(starFront);   // 宇宙の星(前背景)をステージに追加する
+        });
+
+        // 宇宙の星の背景を用意する
+        // 後背景はステージの高さの分だけ7秒で、前背景は5秒で後ろに進み、画像の端まで来たら途切れずに先頭から続ける
+        background = new ParallaxBackground(stage.getWidth(), stage.getHeight());
+        background.addLayer(assets.texture(Assets.STAR_BACK), assets.tileMask(Assets.STAR_BACK), stage.getHeight() / 7);
+        background.addLayer(assets.texture(Assets.STAR_FRONT), assets.tileMask(Assets.STAR_FRONT), stage.getHeight() / 5);
+        layer(RenderLayer.BACKGROUND).addActor(background);
+
+        // キャラクターと弾はレイヤーの順に、敵機・敵のビーム・プレイヤーのビーム・スペースシップの順に重ねる
+        layer(RenderLayer.ENEMIES).addActor(new EntityLayer(EntityKind.ENEMY, assets.region(Assets.ENEMY_SHIP)));
+        layer(RenderLayer.ENEMY_PROJECTILES).addActor(new ProjectileLayer(EntityKind.ENEMY_BEAM, assets.region(Assets.ENEMY_BEAM)));
+        layer(RenderLayer.PLAYER_PROJECTILES).addActor(new ProjectileLayer(EntityKind.BEAM, assets.region(Assets.BEAM)));
+        layer(RenderLayer.PLAYER).addActor(new EntityLayer(EntityKind.PLAYER, assets.region(Assets.SPACESHIP)));
 
         // 残り距離を画面右端に表示する
-        meter = new DistanceMeter(stage.getWidth() - 20, 0, 20, stage.getHeight());
+        meter = new DistanceMeter(assets.region(Assets.WHITE), stage.getWidth() - 20, 0, 20, stage.getHeight());
         meter.currentDistance = 0;
-        stage.addActor(meter);
+        layer(RenderLayer.HUD).addActor(meter);
 
         // ゲームスコアを画面左上に表示する
-        scoreText = new GameText();
-        scoreText.text = "スコア: " + score;
+        scoreText = new HudText(assets.font());
+        scoreText.setText(SCORE_LABEL, world.getScore());
         scoreText.setPosition(32, stage.getHeight() - 40);
-        scoreText.setZIndex(100);   // ゲームスコアが最前面に配置されるようにする
-        stage.addActor(scoreText);
+        layer(RenderLayer.HUD).addActor(scoreText);
 
-        spaceship = new GameSprite(new Texture(Gdx.files.internal("spaceship01.png")));   // スペースシップ(プレイヤー)用アクター(actor)を用意する
-        spaceship.name = "spaceship";
-        // スペースシップを画面下端中央に配置する
-        spaceship.setPosition(stage.getWidth() * 0.5f - spaceship.getWidth() * 0.5f, 0);
-        spaceship.setZIndex(10);    // スペースシップが前面に配置されるようにする
-        stage.addActor(spaceship);  // スペースシップをステージに追加する
+        // 計測結果を画面左上のスコアの下に表示する
+        if (profilerOverlay) {
+            overlay = new ProfilerOverlay(profiler);
+            overlay.setPosition(32, stage.getHeight() - 120);
+            layer(RenderLayer.HUD).addActor(overlay);
+        }
 
         // ゲームクリアメッセージ
-        youWin = new Image(new Texture(Gdx.files.internal("you_win.png")));
+        youWin = new Image(assets.texture(Assets.YOU_WIN));
         youWin.setPosition(0, stage.getHeight() * .5f - youWin.getHeight() * .5f);
 
         // ゲームオーバーメッセージ
-        gameOver = new Image(new Texture(Gdx.files.internal("game_over.png")));
+        gameOver = new Image(assets.texture(Assets.GAME_OVER));
         gameOver.setPosition(0, stage.getHeight() * .5f - gameOver.getHeight() * .5f);
 
-        beamSound = Gdx.audio.newSound(Gdx.files.internal("beam.wav"));                         // ビーム発射音用サウンドを読み込む
-        explosionSound = Gdx.audio.newSound(Gdx.files.internal("explosion.wav"));               // 爆発用サウンドを読み込む
-        enemySpawnSound = Gdx.audio.newSound(Gdx.files.internal("enemy_spawn.wav"));            // 敵発生音用サウンドを読み込む
-        enemyBeamSound = Gdx.audio.newSound(Gdx.files.internal("enemy_beam.wav"));              // 敵ビーム用サウンドを読み込む
-        enemyExplosionSound = Gdx.audio.newSound(Gdx.files.internal("enemy_explosion.wav"));    // 敵爆発用サウンドを読み込む
-        gameLoseSound = Gdx.audio.newSound(Gdx.files.internal("lose.wav"));                     // ゲームオーバー用サウンドを読み込む
-        gameWinSound = Gdx.audio.newSound(Gdx.files.internal("win.wav"));                       // ゲームウィン用サウンドを読み込む
-        tapSound = Gdx.audio.newSound(Gdx.files.internal("tap.wav"));                           // ボタンタップ用サウンドを読み込む
-        bgm = Gdx.audio.newMusic(Gdx.files.internal("bgm.mp3"));                                // BGM用音楽を読み込む
+        // リスタートボタン
+        restartButton = new Image(assets.region(Assets.RESTART_BUTTON));
+        restartButton.addListener(new InputListener() {
+            public boolean touchDown (InputEvent event, float x, float y, int pointer, int button) {
+                event.stop();
+                return true;
+            }
+
+            public void touchUp (InputEvent event, float x, float y, int pointer, int button) {
+                tapSound.play();
+                restartButton.remove();
+                input.restart = true;   // 次の更新でシミュレーションをリスタートする
+            }
+        });
+        restartButton.setPosition(stage.getWidth() * .5f - restartButton.getWidth() * .5f, stage.getHeight() * .5f - 400.f);
+
+        // 効果音を登録する (音の長さ・同時に鳴らせる数・連続して鳴らせる間隔・優先度を指定する)
+        // 敵の音は数が多いので優先度を低くし、ゲームの進行を知らせる音は必ず鳴るようにする
+        sounds = new SoundManager(Gdx.audio, MAX_VOICES);
+        beamSound = sounds.add("beam", assets.sound(Assets.BEAM_SOUND), .27f, 3, .05f, 2);                                 // ビーム発射音
+        explosionSound = sounds.add("explosion", assets.sound(Assets.EXPLOSION_SOUND), .55f, 1, 0, 4);                     // 爆発音
+        enemySpawnSound = sounds.add("enemy_spawn", assets.sound(Assets.ENEMY_SPAWN_SOUND), .68f, 2, .1f, 1);              // 敵発生音
+        enemyBeamSound = sounds.add("enemy_beam", assets.sound(Assets.ENEMY_BEAM_SOUND), 2.f, 4, .08f, 0);                 // 敵ビーム音
+        enemyExplosionSound = sounds.add("enemy_explosion", assets.sound(Assets.ENEMY_EXPLOSION_SOUND), .24f, 4, .03f, 3); // 敵爆発音
+        gameLoseSound = sounds.add("lose", assets.sound(Assets.LOSE_SOUND), 3.69f, 1, 0, 5);                               // ゲームオーバー音
+        gameWinSound = sounds.add("win", assets.sound(Assets.WIN_SOUND), 2.62f, 1, 0, 5);                                  // ゲームウィン音
+        tapSound = sounds.add("tap", assets.sound(Assets.TAP_SOUND), .12f, 1, 0, 5);                                       // ボタンタップ音
+        bgm = assets.music(Assets.BGM);                                                                                  // BGM用音楽
         bgm.setLooping(true);   // BGM再生をループ設定にする
         bgm.play();             // BGMを再生する
-
-        lastEnemySpawnedTime = TimeUtils.nanoTime();    // 最終敵生成時刻を初期化する
-        gameStartTime = TimeUtils.nanoTime();           // ゲーム開始時刻を初期化する
-    }
-
-    private void spawnEnemy() {
-        final GameSprite enemyShip = new GameSprite(new Texture(Gdx.files.internal("enemy_ship.png")));
-        enemyShip.name = "enemy";
-        enemyShip.setX(MathUtils.random(0, stage.getWidth() - enemyShip.getWidth()));
-        enemyShip.setY(stage.getHeight());
-        // 画面を3秒〜6秒の時間で縦に移動するようにアクションを設定する
-        // それと同時に、横方向に不規則に動くようにもアクションを設定する
-        enemyShip.addAction(parallel(
-            // 縦に移動するためのアクション
-            sequence(
-                moveBy(0, -(stage.getHeight() + enemyShip.getHeight()), MathUtils.random(3, 6)),
-                removeActor()
-            ),
-            // 横方向に不規則に動くためのアクション
-            forever(
-                sequence(
-                    delay(MathUtils.random(50, 100) / 100.f),
-                    // 毎回違う量だけ横に動かすためには、runアクション内でmoveByアクションを設定する必要がある
-                    run(new Runnable() {
-                        @Override
-                        public void run() {
-                        enemyShip.addAction(moveBy(MathUtils.random(-200, 200), 0, .5f));
-                        }
-                    })
-                )
-
-            )
-        ));
-        // 不規則な間隔(0.5秒〜3秒)でビームを撃ち続ける
-        enemyShip.addAction(forever(
-            sequence(
-                delay(MathUtils.random(50, 300) / 100.f),
-                run(new Runnable() {
-                    @Override
-                    public void run() {
-                        spawnEnemyBeam(enemyShip);
-                    }
-                })
-            )
-        ));
-        enemySpawnSound.play();
-        stage.addActor(enemyShip);
-        lastEnemySpawnedTime = TimeUtils.nanoTime();
-    }
-
-    private void spawnEnemyBeam(Actor enemy) {
-        GameSprite beam = new GameSprite(new Texture(Gdx.files.internal("enemy_beam.png")));
-        beam.name = "enemy_beam";
-        beam.setPosition(enemy.getX() + enemy.getWidth() * .5f - beam.getWidth() * 0.5f, enemy.getY());
-        beam.addAction(sequence(
-            moveBy(0, -stage.getHeight(), 1.f),
-            removeActor()
-        ));
-        stage.addActor(beam);
-        enemyBeamSound.play();
     }
 
     @Override
     public void render () {
+        if (!assets.isLoaded()) {
+            renderLoading();
+            return;
+        }
+        long frameStart = TimeUtils.nanoTime();
+        profiler.begin(FrameProfiler.Phase.FRAME);
+        // 処理落ちで経過時間が大きくなっても、演出が一度に進みすぎないようにする
+        float delta = Math.min(Gdx.graphics.getDeltaTime(), timestep.tickTime * timestep.maxTicksPerFrame);
+        // 端末の傾きとタッチの状態をシミュレーションに渡し、経過時間(delta time)に応じた回数だけ一定の時間刻みで進める
+        // (ビーム発射などの1回きりの入力は、最初の更新で使われる)
+        if (inputSource != null) {
+            input.accelX = inputSource.accelX;
+            input.accelY = inputSource.accelY;
+            input.touched = inputSource.touched;
+            input.fire += inputSource.fire;
+            input.restart |= inputSource.restart;
+            inputSource.consume();
+        } else {
+            input.accelX = Gdx.input.getAccelerometerX();
+            input.accelY = Gdx.input.getAccelerometerY();
+            input.touched = Gdx.input.isTouched();
+        }
+        profiler.begin(FrameProfiler.Phase.STEP);
+        if (simulation != null) finishStep();      // 前のフレームで始めた更新が終わるのを待ち、結果を受け取る
+        stepTicks = timestep.advance(Gdx.graphics.getDeltaTime());
+        stepAlpha = timestep.alpha();
+        profiler.addDroppedTicks(timestep.getLastDroppedTicks());
+        input.throttle = governor.throttle();
+        stepInput.set(input);
+        // 更新しないフレーム(ティック数が0)では、発射・リスタートの入力を消さずに次のフレームに持ち越す
+        if (stepTicks > 0) input.consume();
+        if (simulation != null) {
+            simulation.start();                     // 描画している間に、別のスレッドで更新を進める
+        } else {
+            simulate.run();
+            finishStep();
+        }
+        profiler.end(FrameProfiler.Phase.STEP);
+        meter.currentDistance = snapshot.distance;
+        // 効果音の聞き手はスペースシップ (ステージの高さの2倍離れると聞こえなくなる)
+        sounds.setListener(snapshot.playerX + EntityKind.PLAYER.width * .5f, snapshot.playerY + EntityKind.PLAYER.height * .5f, World.HEIGHT * 2);
+        sounds.update(Gdx.graphics.getDeltaTime());
+
         // 画面をミッドナイトブルー(red = 44, green = 62, blue = 80)に設定する
         // 色参照: https://flatuicolors.com/
+        profiler.begin(FrameProfiler.Phase.CLEAR);
         Gdx.gl.glClearColor(44 / 255.f, 62 / 255.f, 80 / 255.f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);   // 画面をクリアする
-        stage.act(Gdx.graphics.getDeltaTime());     // ステージの状態を前回render呼び出しからの経過時間(delta time)分だけ更新する
+        profiler.end(FrameProfiler.Phase.CLEAR);
+        profiler.begin(FrameProfiler.Phase.STAGE_ACT);
+        stage.act(delta);                           // 背景や爆発などの演出を更新する
+        profiler.end(FrameProfiler.Phase.STAGE_ACT);
+        profiler.begin(FrameProfiler.Phase.STAGE_DRAW);
         stage.draw();                               // ステージを最新の状態に描画する
+        profiler.end(FrameProfiler.Phase.STAGE_DRAW);
+        profiler.end(FrameProfiler.Phase.FRAME);
+        if (profiler.enabled) endProfilerFrame();
+        governor.update((TimeUtils.nanoTime() - frameStart) / 1e9f);
+        if (playableTime == 0) {
+            playableTime = TimeUtils.nanoTime() - startTime;
+            Gdx.app.log("Startup", "first playable frame: " + getPlayableMillis() + " ms");
+        }
+    }
 
-        if (status == GameStatus.GAME_OVER) {
-            return;
-        } else if (status == GameStatus.GAME_WIN) {
-            controlPlayer();
-        } else if (status == GameStatus.WAIT_TO_RESTART_FROM_WIN) {
-            controlPlayer();
-        } else if (status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) {
-            if (Gdx.input.isTouched()) restart();
-        } else if (status == GameStatus.PLAYING) {
-            controlPlayer();
-            // ランダムな間隔(3秒〜6秒)で敵を発生させる
-            if (TimeUtils.nanoTime() - lastEnemySpawnedTime > (1000000000 * (long)MathUtils.random(3, 6))) spawnEnemy();
-            // ゲーム開始時刻からの経過時間から、進行距離を計算する
-            meter.currentDistance = (int)((TimeUtils.nanoTime() - gameStartTime) / 1000000000.f);
-            // 進行距離が100を超えたらゲームクリア
-            if (meter.currentDistance > 100) gameWin();
-            // ゲームキャラクター同士に衝突がないかチェックする
-            checkCollisions();
-        }
-    }
-
-    // プレイヤーを操縦する
-    private void controlPlayer() {
-        // 端末が横方向に傾いたら、傾き量に応じてスペースシップを横方向に移動させる
-        if (Math.abs(Gdx.input.getAccelerometerX()) > 0.2) {
-            spaceship.setX(spaceship.getX() - 200 * Gdx.input.getAccelerometerX() * Gdx.graphics.getDeltaTime());
-        }
-        // 端末が縦方向に傾いたら、傾き量に応じてスペースシップを縦方向に移動させる
-        if (Math.abs(Gdx.input.getAccelerometerY()) > 0.2) {
-            spaceship.setY(spaceship.getY() - 200 * Gdx.input.getAccelerometerY() * Gdx.graphics.getDeltaTime());
-        }
-
-        if (spaceship.getX() < 0) { // スペースシップが画面左端よりも左に移動してしまったら、画面左端に戻す
-            spaceship.setX(0);
-        } else if (spaceship.getX() > stage.getWidth() - spaceship.getWidth()) {  // スペースシップが画面右端よりも右に移動してしまったら、画面右端に戻す
-            spaceship.setX(stage.getWidth() - spaceship.getWidth());
-        }
-        if (spaceship.getY() < 0) { // スペースシップが画面下端よりも下に移動してしまったら、画面下端に戻す
-            spaceship.setY(0);
-        } else if (spaceship.getY() > stage.getHeight() - spaceship.getHeight()) {  // スペースシップが画面上端よりも上に移動してしまったら、画面上端に戻す
-            spaceship.setY(stage.getHeight() - spaceship.getHeight());
-        }
-    }
-
-    // ゲーム中のキャラクターの衝突をチェックする
-    private void checkCollisions() {
-        Array<Actor> actors = stage.getActors();
-        for (int i = 0; i < actors.size; i++) {
-            Actor actorA = actors.get(i);
-            for (int j = i + 1; j < actors.size; j++) {
-                Actor actorB = actors.get(j);
-                // actorAもactorBもどちらもゲームキャラクター(GameSprite)の場合
-                if (actorA instanceof GameSprite && actorB instanceof GameSprite) {
-                    GameSprite spriteA = (GameSprite)actorA;
-                    GameSprite spriteB = (GameSprite)actorB;
-                    List<String> names = Arrays.asList(spriteA.name, spriteB.name);
-                    if (spriteA.overlaps(spriteB)) {
-                        // プレイヤーが敵または敵のビームに触れた場合
-                        if (names.contains("spaceship") && (names.contains("enemy") || names.contains("enemy_beam"))) {
-                            // spriteAとspriteBのどちらがプレイヤーか調べる
-                            if (spriteA.name.equals("spaceship")) {
-                                // 敵機が一時的に画面左下に見えない状態で表示されることがあるので、
-                                // 敵機が正常に表示されている状態で衝突した場合にのみ爆破させる
-                                if (spriteB.getImageWidth() > 0) explodePlayer(spriteA);
-                            } else {
-                                // 敵機が一時的に画面左下に見えない状態で表示されることがあるので、
-                                // 敵機が正常に表示されている状態で衝突した場合にのみ爆破させる
-                                if (spriteA.getImageWidth() > 0) explodePlayer(spriteB);
-                            }
-                        } else if (names.contains("enemy") && names.contains("beam")) { // 敵がビームに触れた場合
-                            // spriteAとspriteBのどちらが敵か調べる
-                            if (spriteA.name.equals("enemy")) {
-                                explodeEnemy(spriteA);
-                            } else {
-                                explodeEnemy(spriteB);
-                            }
-                        }
-                    }
-                }
+    // 読み込み中の画面を描画する
+    // 読み込みを少しずつ進め、終わったらゲームを用意する (次のフレームからゲームを描画する)
+    private void renderLoading() {
+        boolean loaded = assets.update(LOADING_UPDATE_MILLIS);
+        loadingBar.progress = assets.getProgress();
+        Gdx.gl.glClearColor(44 / 255.f, 62 / 255.f, 80 / 255.f, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        stage.act(Gdx.graphics.getDeltaTime());
+        stage.draw();
+        if (firstFrameTime == 0) {
+            firstFrameTime = TimeUtils.nanoTime() - startTime;
+            Gdx.app.log("Startup", "first frame: " + getFirstFrameMillis() + " ms");
+        }
+        if (loaded) {
+            loadingBar.remove();
+            loadingBar.dispose();
+            loadingBar = null;
+            long start = TimeUtils.nanoTime();
+            setup();
+            Gdx.app.log("Startup", "loaded in " + TimeUtils.nanosToMillis(start - startTime) + " ms, setup " + TimeUtils.nanosToMillis(TimeUtils.nanoTime() - start) + " ms");
+        }
+    }
+
+    // シミュレーションを今回のフレームの分だけ進め、結果を描画用の写しに書き込む
+    // (スレッド数が2以上の場合は、描画と並行して別のスレッドで実行される)
+    private final Runnable simulate = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < stepTicks; i++) {
+                if (recorder != null) recorder.record(stepInput);
+                world.step(timestep.tickTime, stepInput);   // ビーム発射などの1回きりの入力は、最初の更新で使われる
+                if (recorder != null) recorder.checkpoint(world);
             }
+            nextSnapshot.copyFrom(world);
+            nextSnapshot.alpha = stepAlpha;
         }
+    };
+
+    // 更新が終わるのを待ち、書き込まれた写しを描画に使うように入れ替えて、記録しておいた出来事の演出を行う
+    private void finishStep() {
+        if (simulation != null) simulation.await();
+        WorldSnapshot written = nextSnapshot;
+        nextSnapshot = snapshot;
+        snapshot = written;
+        events.deliver(presenter, world);
+        // スコアはフレームごとに1回だけ表示に反映する (ゲームクリアで多数の敵機が爆発しても、文字の配置の計算は1回で済む)
+        scoreText.setText(SCORE_LABEL, snapshot.score);     // スコアが変わった時だけ文字の配置を計算し直す
     }
 
-    // プレイヤーを爆破させる
-    private void explodePlayer(GameSprite player) {
-        Image explosion = new Image(new Texture(Gdx.files.internal("explosion.png")));
-        explosion.setPosition(player.getX(), player.getY());
-        explosion.setOrigin(explosion.getWidth() * .5f, explosion.getHeight() * .5f);
-        Color color = explosion.getColor();
-        explosion.setScale(0, 0);
-        explosion.setColor(color.r, color.g, color.b, 0.f);
-        explosion.addAction(parallel(
-                sequence(
-                        fadeIn(.2f),
-                        delay(.5f),
-                        fadeOut(1.5f),
-                        removeActor()
-                ),
-                scaleTo(2.f, 2.f, .2f)
-        ));
-        status = GameStatus.GAME_OVER;  // ステータスをゲームオーバーにする
-        // 爆発が終わった後(2秒後)にゲームオーバーの演出をする
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                gameOver();
+    // 1フレーム分の描画の統計とキャラクターの数をプロファイラに記録する
+    private void endProfilerFrame() {
+        profiler.addDrawStats(GLProfiler.drawCalls, GLProfiler.textureBindings, batch.totalRenderCalls - lastRenderCalls);
+        GLProfiler.reset();
+        lastRenderCalls = batch.totalRenderCalls;
+        profiler.setLive(EntityKind.PLAYER.ordinal(), snapshot.playerAlive ? 1 : 0);
+        profiler.setLive(EntityKind.ENEMY.ordinal(), snapshot.enemyCount);
+        profiler.setLive(EntityKind.BEAM.ordinal(), snapshot.projectileCounts[EntityKind.BEAM.ordinal()]);
+        profiler.setLive(EntityKind.ENEMY_BEAM.ordinal(), snapshot.projectileCounts[EntityKind.ENEMY_BEAM.ordinal()]);
+        profiler.setLive(EntityKind.EXPLOSION.ordinal(), effects.size());
+        int actors = 0;
+        for (LayerGroup layer : layers) {
+            actors += layer.getChildren().size;
+            profiler.addLayerBinds(layer.layer, layer.getBinds());
+        }
+        profiler.setLive(FrameProfiler.LIVE_ACTORS, actors);
+        profiler.endFrame();
+        if (profiler.windowSeconds() >= PROFILE_DUMP_INTERVAL) {
+            profiler.dump(Gdx.files.local("profile/" + profiler.label + ".csv"), Gdx.files.local("profile/" + profiler.label + ".json"));
+        }
+    }
+
+    @Override
+    public void pause () {
+        saveReplay();   // アプリが終了させられても記録が残るように、中断時にも保存する
+    }
+
+    @Override
+    public void resume () {
+        timestep.reset();   // 中断前に貯まっていた時間で、再開直後にシミュレーションを進めない
+    }
+
+    // 記録中のリプレイを保存する
+    private void saveReplay() {
+        if (recorder == null) return;
+        if (simulation != null) simulation.await();     // 記録中の更新が終わるのを待つ
+        recorder.finish(world);
+        OutputStream out = Gdx.files.local(replayPath).write(false);
+        try {
+            recorder.replay.write(out);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't save replay: " + replayPath, e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException ignored) {
             }
-        }, 2.f);
-        stage.addActor(explosion);
-        player.remove();
-        explosionSound.play();
-    }
-
-    // 敵を爆破させる
-    private void explodeEnemy(GameSprite enemy) {
-        Image explosion = new Image(new Texture(Gdx.files.internal("enemy_explosion.png")));
-        explosion.setPosition(enemy.getX(), enemy.getY());
-        explosion.setOrigin(explosion.getWidth() * .5f, explosion.getHeight() * .5f);
-        Color color = explosion.getColor();
-        explosion.setScale(0, 0);
-        explosion.setColor(color.r, color.g, color.b, 0.f);
-        explosion.addAction(parallel(
-                sequence(
-                    fadeIn(.2f),
-                    delay(.5f),
-                    fadeOut(1.5f),
-                    removeActor()
-                ),
-                scaleTo(2.f, 2.f, .2f)
-        ));
-        score += 10;    // スコアを10点加算する
-        scoreText.text = "スコア: " + score;
-        stage.addActor(explosion);
-        enemy.remove();
-        enemyExplosionSound.play();
+        }
+    }
+
+    // 起動からのバッチの描画回数 (1フレームで何回バッチを区切ったかの確認用)
+    int getTotalRenderCalls() {
+        return batch.totalRenderCalls;
+    }
+
+    // アクターを追加する描画レイヤー
+    private LayerGroup layer(RenderLayer layer) {
+        return layers[layer.ordinal()];
+    }
+
+    FrameGovernor getGovernor() {
+        return governor;
+    }
+
+    // 素材として確保しているテクスチャの数 (読み込みの後は、キャラクターが何体生成されても変わらないこと)
+    int getTextureCount() {
+        return assets.getTextureCount();
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    // 描画中の状態の写し (読み込み中はnull)
+    // シミュレーションを別のスレッドで進めている間も、render()の呼び出しの間なら安全に読める
+    WorldSnapshot getSnapshot() {
+        return world == null ? null : snapshot;
+    }
+
+    // 生成から最初のフレームを描画するまでの時間 (ミリ秒。まだ描画していなければ0)
+    long getFirstFrameMillis() {
+        return TimeUtils.nanosToMillis(firstFrameTime);
+    }
+
+    // 生成から遊べる最初のフレームを描画するまでの時間 (ミリ秒。まだ読み込み中なら0)
+    long getPlayableMillis() {
+        return TimeUtils.nanosToMillis(playableTime);
+    }
+
+    // プールの統計情報をログに出力する (ミス数が増え続けていなければゲーム中の生成は発生していない)
+    // (ゲームクリアのフレームで呼ばれるので、ログを出さない設定なら文字列も作らない)
+    private void logPoolStats() {
+        if (Gdx.app.getLogLevel() < Application.LOG_INFO) return;
+        Gdx.app.log("Pool", world.enemies.toString());
+        Gdx.app.log("Pool", effects.toString());
+        Gdx.app.log("Pool", "projectiles: live=" + world.projectiles.size() + " capacity=" + world.projectiles.capacity + " dropped=" + world.projectiles.getDropped());
+    }
+
+    // 効果音の統計情報をログに出力する (再生しなかった回数の内訳)
+    private void logSoundStats() {
+        if (Gdx.app.getLogLevel() < Application.LOG_INFO) return;
+        Array<SoundManager.Effect> effects = sounds.getEffects();
+        for (int i = 0; i < effects.size; i++) {
+            Gdx.app.log("Sound", effects.get(i).toString());
+        }
+    }
+
+    // 処理落ちで切り捨てたシミュレーションのティック数をログに出力する (リスタートしてからの合計)
+    private void logTimestepStats() {
+        if (Gdx.app.getLogLevel() < Application.LOG_INFO) return;
+        Gdx.app.log("Timestep", "dropped ticks=" + timestep.getDroppedTicks() + " tick rate=" + timestep.tickRate);
+    }
+
+    // キャラクターの位置に爆発を表示する
+    // 負荷が高い時は敵の爆発の数を制限し、さらに重ければ拡大・フェードを省いて一定時間だけ表示する
+    private void showExplosion(int type, Entity entity) {
+        if (type == ENEMY_EXPLOSION && governor.capExplosions() && effects.count(type) >= MAX_EXPLOSIONS_UNDER_LOAD) return;
+        effects.spawn(type, entity.x, entity.y, governor.animateExplosions(), STATIC_EXPLOSION_TIME);
     }
 
     // ゲームウィンの演出を行う
-    private void gameWin() {
-        status = GameStatus.GAME_WIN;
+    private void showGameWin() {
         gameWinSound.play();
-        Array<Actor> actors = stage.getActors();
-        for (int i = 0; i < actors.size; i++) {
-            Actor actor = actors.get(i);
-            if (actor instanceof GameSprite) {
-                GameSprite sprite = (GameSprite)actor;
-                if (sprite.name.equals("enemy")) {
-                    explodeEnemy(sprite);
-                } else if (sprite.name.equals("enemy_beam")) {
-                    sprite.remove();
-                }
-            }
-        }
+        logPoolStats();
+        logSoundStats();
+        logTimestepStats();
         // ゲームウィン表示を点滅させる
         youWin.addAction(
             repeat(3, sequence(fadeOut(.2f), fadeIn(.2f), delay(.2f)))
         );
-        stage.addActor(youWin);
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                // ゲームスコア表示を画面中央に移動させる
-                GlyphLayout layout = new GlyphLayout();
-                layout.setText(scoreText.font, scoreText.text);
-                scoreText.setPosition(stage.getWidth() * .5f - layout.width * .5f, stage.getHeight() * .5f - 128.f);
-                // リスタートボタンをセットアップする
-                final Image restartButton = new Image(new Texture(Gdx.files.internal("restart_button.png")));
-                restartButton.addListener(new InputListener() {
-                    public boolean touchDown (InputEvent event, float x, float y, int pointer, int button) {
-                        event.stop();
-                        return true;
-                    }
-
-                    public void touchUp (InputEvent event, float x, float y, int pointer, int button) {
-                        tapSound.play();
-                        restartButton.remove();
-                        restart();
-                    }
-                });
-                restartButton.setPosition(stage.getWidth() * .5f - restartButton.getWidth() * .5f, stage.getHeight() * .5f - 400.f);
-                stage.addActor(restartButton);
-                status = GameStatus.WAIT_TO_RESTART_FROM_WIN;    // ステータスをリスタート待ち(wait to restart)にする
-            }
-        }, 2.5f);
+        layer(RenderLayer.HUD).addActor(youWin);
     }
 
     // ゲームオーバーの演出を行う
-    private void gameOver() {
+    private void showGameOver() {
         bgm.stop(); // BGMを停止する
-        stage.removeListener(inputListener);    // ステージから一旦イベントリスナを削除する
+        logPoolStats();
+        logSoundStats();
+        logTimestepStats();
         gameLoseSound.play();   // ゲームオーバー音を鳴らす
-        // ゲームオーバー音がなり終わった後にゲームオーバー画面を表示する
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                // スコアを非表示にする
-                scoreText.remove();
-                stage.addActor(gameOver);
-                status = GameStatus.WAIT_TO_RESTART_FROM_LOSE;    // ステータスをリスタート待ち(wait to restart)にする
-            }
-        }, 4.5f);
     }
 
-    // ゲームリスタート時のセットアップを行う
-    private void restart() {
-        if (status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) {
-            // スペースシップを配置し直し、ステージに再度追加する
-            spaceship.setPosition(stage.getWidth() * 0.5f - spaceship.getWidth() * 0.5f, 0);
-            stage.addActor(spaceship);
-            // ステージにイベントリスナを再度追加する
-            stage.addListener(inputListener);
+    // リスタート待ちの表示を行う
+    private void showRestart(GameStatus status) {
+        if (status == GameStatus.WAIT_TO_RESTART_FROM_WIN) {
+            // ゲームスコア表示を画面中央に移動させる
+            scoreText.setPosition(stage.getWidth() * .5f - scoreText.getTextWidth() * .5f, stage.getHeight() * .5f - 128.f);
+            // リスタートボタンを表示する
+            layer(RenderLayer.HUD).addActor(restartButton);
+        } else {
+            // ゲームオーバー音がなり終わった後にスコアを非表示にして、ゲームオーバー画面を表示する
+            scoreText.remove();
+            layer(RenderLayer.HUD).addActor(gameOver);
+        }
+    }
+
+    // ゲームリスタート時の表示のセットアップを行う
+    private void setupRestart(GameStatus previous) {
+        if (previous == GameStatus.WAIT_TO_RESTART_FROM_LOSE) {
             // ゲームオーバー画像を削除する
             gameOver.remove();
             // スコアを再度表示する
-            stage.addActor(scoreText);
-        } else if (status == GameStatus.WAIT_TO_RESTART_FROM_WIN) {
+            layer(RenderLayer.HUD).addActor(scoreText);
+        } else if (previous == GameStatus.WAIT_TO_RESTART_FROM_WIN) {
             // ゲームクリア画像を削除する
             youWin.remove();
+            restartButton.remove();     // ボタン以外からリスタートした場合 (自動操縦など)
             // スコア表示を画面左上に戻す
             scoreText.setPosition(32, stage.getHeight() - 40);
         }
         // BGMを最初から再生する
         bgm.setPosition(0);
         bgm.play();
-        status = GameStatus.PLAYING;
-        // スコアを0にリセットする
-        score = 0;
-        scoreText.text = "スコア: " + score;
-        // ゲーム開始時刻を現在にセットする
-        gameStartTime = TimeUtils.nanoTime();
+        timestep.reset();   // 切り捨てたティック数をゲームごとに数え直す
     }
 
     @Override
     public void dispose () {
+        if (simulation != null) simulation.dispose();   // 更新用のスレッドを止める
+        if (workers != null) workers.dispose();
+        saveReplay();                   // リプレイを保存する
         stage.dispose();                // ステージを破棄する
-        beamSound.dispose();            // ビーム発射音を破棄する
-        enemySpawnSound.dispose();      // 敵発生音を破棄する
-        enemyBeamSound.dispose();       // 敵ビーム音を破棄する
-        enemyExplosionSound.dispose();  // 敵爆発音を破棄する
-        gameLoseSound.dispose();        // ゲームオーバー音を破棄する
-        gameWinSound.dispose();         // ゲームウィン音を破棄する
-        tapSound.dispose();             // タップ音を破棄する
-        bgm.dispose();                  // BGMを破棄する
+        batch.dispose();                // ステージの描画用バッチを破棄する
+        if (loadingBar != null) loadingBar.dispose();   // 読み込み中に終了した場合
+        if (overlay != null) overlay.dispose();     // 計測結果の表示用フォントを破棄する
+        if (profiler.enabled) GLProfiler.disable();
+        if (sounds != null) sounds.dispose();       // 鳴っている効果音を止める
+        if (bgm != null) bgm.stop();
+        assets.dispose();               // テクスチャ・効果音・BGMを破棄する (読み込み途中のものも含む)
     }
 }
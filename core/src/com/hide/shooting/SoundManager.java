@@ -0,0 +1,212 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+// 効果音の再生を管理するクラス
+// 同時に鳴らす数(ボイス数)を効果音ごとと全体で制限し、短い間隔での連続再生や、遠くて聞こえない音の再生を省く
+// 全体の上限に達した場合は、優先度の低い音を止めて新しい音を鳴らす (同じ優先度なら古い音を止める)
+//
+// Soundは再生が終わったかを知る方法がないので、読み込み時に指定した長さの間は鳴っているものとみなす
+// 時間はupdate()で進めるので、実時間に関係なく動かせる (Audioを差し替えれば端末なしでも動く)
+final class SoundManager implements Disposable {
+
+    static final float MIN_VOLUME = .05f;   // これより小さい音量になる場合は再生しない
+
+    // 読み込んだ効果音
+    final class Effect {
+
+        final String name;
+        final Sound sound;
+        final float duration;       // 音の長さ (秒)
+        final int maxVoices;        // 同時に鳴らせる数
+        final float minInterval;    // 前回の再生からこの時間(秒)が経つまでは再生しない
+        final int priority;         // 大きいほど優先される
+        private final boolean owned;    // このクラスで読み込んだ音か (読み込んだ音だけを破棄する)
+        private float lastPlayed = Float.NEGATIVE_INFINITY;
+
+        int played;         // 再生した回数
+        int throttled;      // 前回の再生から間もないため再生しなかった回数
+        int culled;         // 遠くて聞こえないため再生しなかった回数
+        int dropped;        // ボイス数の上限のため再生しなかった回数
+        int stolen;         // 他の音を鳴らすために途中で止められた回数
+
+        private Effect(String name, Sound sound, boolean owned, float duration, int maxVoices, float minInterval, int priority) {
+            this.name = name;
+            this.owned = owned;
+            this.sound = sound;
+            this.duration = duration;
+            this.maxVoices = maxVoices;
+            this.minInterval = minInterval;
+            this.priority = priority;
+        }
+
+        // 最大の音量で鳴らす
+        boolean play() {
+            return SoundManager.this.play(this, 1, 0);
+        }
+
+        // 位置(x, y)で鳴った音として、聞き手からの距離に応じた音量と左右の位置で鳴らす
+        boolean play(float x, float y) {
+            float dx = x - listenerX;
+            float dy = y - listenerY;
+            float distance = (float)Math.sqrt(dx * dx + dy * dy);
+            float volume = 1 - distance / falloffDistance;
+            float pan = MathUtils.clamp(dx / falloffDistance, -1, 1);
+            return SoundManager.this.play(this, volume, pan);
+        }
+
+        @Override
+        public String toString() {
+            return name + ": played=" + played + " throttled=" + throttled + " culled=" + culled
+                    + " dropped=" + dropped + " stolen=" + stolen;
+        }
+    }
+
+    private final Audio audio;
+    private final Array<Effect> effects = new Array<Effect>();
+    private float time;
+
+    // 鳴っているボイス (同じ添字で1つのボイスを表す)
+    private final Effect[] voiceEffects;
+    private final long[] voiceIds;
+    private final float[] voiceEnds;    // 鳴り終わる時刻
+
+    private float listenerX;
+    private float listenerY;
+    private float falloffDistance = 1;  // 音量が0になる距離
+
+    SoundManager(Audio audio, int maxVoices) {
+        this.audio = audio;
+        voiceEffects = new Effect[maxVoices];
+        voiceIds = new long[maxVoices];
+        voiceEnds = new float[maxVoices];
+    }
+
+    Effect load(FileHandle file, float duration, int maxVoices, float minInterval, int priority) {
+        Effect effect = new Effect(file.nameWithoutExtension(), audio.newSound(file), true, duration, maxVoices, minInterval, priority);
+        effects.add(effect);
+        return effect;
+    }
+
+    // 読み込み済みの音を登録する (soundの破棄は呼び出し側で行う)
+    Effect add(String name, Sound sound, float duration, int maxVoices, float minInterval, int priority) {
+        Effect effect = new Effect(name, sound, false, duration, maxVoices, minInterval, priority);
+        effects.add(effect);
+        return effect;
+    }
+
+    // 聞き手の位置と、音量が0になる距離を設定する
+    void setListener(float x, float y, float falloffDistance) {
+        this.listenerX = x;
+        this.listenerY = y;
+        this.falloffDistance = falloffDistance;
+    }
+
+    // 時間を進める (毎フレーム呼び出す)
+    void update(float delta) {
+        time += delta;
+        for (int i = 0; i < voiceEffects.length; i++) {
+            if (voiceEffects[i] != null && voiceEnds[i] <= time) voiceEffects[i] = null;
+        }
+    }
+
+    private boolean play(Effect effect, float volume, float pan) {
+        if (volume < MIN_VOLUME) {
+            effect.culled++;
+            return false;
+        }
+        if (time - effect.lastPlayed < effect.minInterval) {
+            effect.throttled++;
+            return false;
+        }
+
+        // 効果音ごとの上限に達していたら、その効果音の一番古いボイスを止める
+        int voice = -1;
+        int count = 0;
+        int oldest = -1;
+        for (int i = 0; i < voiceEffects.length; i++) {
+            Effect playing = voiceEffects[i];
+            if (playing == null) {
+                if (voice < 0) voice = i;
+            } else if (playing == effect) {
+                count++;
+                if (oldest < 0 || voiceEnds[i] < voiceEnds[oldest]) oldest = i;
+            }
+        }
+        if (count >= effect.maxVoices) {
+            voice = oldest;
+        } else if (voice < 0) {
+            // 全体の上限に達していたら、優先度が同じか低いボイスのうち、優先度が一番低く古いものを止める
+            for (int i = 0; i < voiceEffects.length; i++) {
+                Effect playing = voiceEffects[i];
+                if (playing.priority > effect.priority) continue;
+                if (voice < 0 || playing.priority < voiceEffects[voice].priority
+                        || (playing.priority == voiceEffects[voice].priority && voiceEnds[i] < voiceEnds[voice])) voice = i;
+            }
+            if (voice < 0) {
+                effect.dropped++;
+                return false;
+            }
+        }
+        if (voiceEffects[voice] != null) {
+            voiceEffects[voice].sound.stop(voiceIds[voice]);
+            voiceEffects[voice].stolen++;
+        }
+
+        long id = effect.sound.play(Math.min(volume, 1), 1, pan);
+        if (id == -1) {
+            // 再生に失敗した場合 (端末側の上限など)
+            voiceEffects[voice] = null;
+            effect.dropped++;
+            return false;
+        }
+        voiceEffects[voice] = effect;
+        voiceIds[voice] = id;
+        voiceEnds[voice] = time + effect.duration;
+        effect.lastPlayed = time;
+        effect.played++;
+        return true;
+    }
+
+    // 鳴っているボイスの数
+    int getActiveVoices() {
+        int count = 0;
+        for (int i = 0; i < voiceEffects.length; i++) {
+            if (voiceEffects[i] != null) count++;
+        }
+        return count;
+    }
+
+    // 再生しなかった回数の合計 (間引き・距離・上限)
+    int getDroppedPlays() {
+        int total = 0;
+        for (int i = 0; i < effects.size; i++) {
+            Effect effect = effects.get(i);
+            total += effect.throttled + effect.culled + effect.dropped;
+        }
+        return total;
+    }
+
+    Array<Effect> getEffects() {
+        return effects;
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < effects.size; i++) {
+            Effect effect = effects.get(i);
+            if (effect.owned) {
+                effect.sound.dispose();
+            } else {
+                effect.sound.stop();
+            }
+        }
+        effects.clear();
+        for (int i = 0; i < voiceEffects.length; i++) voiceEffects[i] = null;
+    }
+}
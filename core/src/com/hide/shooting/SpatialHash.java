@@ -0,0 +1,172 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.IntArray;
+
+// 衝突判定のブロードフェーズ用の均一グリッド
+// 画面を一定サイズのセルに分割し、同じセルに入っているキャラクター同士だけを判定する
+// 登録したキャラクターは呼び出し側が決めた番号(id)で管理し、判定中にオブジェクトを生成しない
+final class SpatialHash {
+
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHeads;   // セルごとの連結リストの先頭ノード (-1は空)
+
+    // 登録したキャラクターの境界 (idで参照する)
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] categories = new int[64];     // キャラクターの種類のビット
+    private int[] masks = new int[64];          // 衝突する相手の種類のビット
+    private int count;
+
+    // セルに登録されたノード (1つのキャラクターが複数のセルにまたがる場合は複数のノードになる)
+    private int[] nodeIds = new int[256];
+    private int[] nodeNext = new int[256];
+    private int nodeCount;
+
+    SpatialHash(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int)Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int)Math.ceil(height / cellSize));
+        this.cellHeads = new int[columns * rows];
+        clear();
+    }
+
+    // 登録を全て削除する (毎フレーム作り直す)
+    void clear() {
+        for (int i = 0; i < cellHeads.length; i++) cellHeads[i] = -1;
+        count = 0;
+        nodeCount = 0;
+    }
+
+    // キャラクターの境界を登録し、そのidを返す (idは登録順に0から振られる)
+    int insert(float x, float y, float width, float height) {
+        return insert(x, y, width, height, -1, -1);
+    }
+
+    // 種類(category)と衝突する相手の種類(mask)を指定して登録する
+    // (category & 相手のmask)が0になる組み合わせは境界が重なっていても報告しない
+    int insert(float x, float y, float width, float height, int category, int mask) {
+        int id = count++;
+        if (id == minX.length) growBounds();
+        categories[id] = category;
+        masks[id] = mask;
+        minX[id] = x;
+        minY[id] = y;
+        maxX[id] = x + width;
+        maxY[id] = y + height;
+
+        int c0 = column(x), c1 = column(x + width);
+        int r0 = row(y), r1 = row(y + height);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                if (nodeCount == nodeIds.length) growNodes();
+                nodeIds[nodeCount] = id;
+                nodeNext[nodeCount] = cellHeads[cell];
+                cellHeads[cell] = nodeCount++;
+            }
+        }
+        return id;
+    }
+
+    // 境界が重なっている組み合わせを全てpairsに追加する (id a, id bの順に2つずつ並ぶ)
+    // 1つの組み合わせは、重なっている領域の左下の点が含まれるセルでのみ報告されるので重複しない
+    void findPairs(IntArray pairs) {
+        for (int cell = 0; cell < cellHeads.length; cell++) {
+            int cellColumn = cell % columns;
+            int cellRow = cell / columns;
+            for (int a = cellHeads[cell]; a != -1; a = nodeNext[a]) {
+                int idA = nodeIds[a];
+                for (int b = nodeNext[a]; b != -1; b = nodeNext[b]) {
+                    int idB = nodeIds[b];
+                    if ((categories[idA] & masks[idB]) == 0) continue;
+                    if (!overlaps(idA, idB)) continue;
+                    float overlapX = Math.max(minX[idA], minX[idB]);
+                    float overlapY = Math.max(minY[idA], minY[idB]);
+                    if (column(overlapX) != cellColumn || row(overlapY) != cellRow) continue;
+                    // 登録順が先のidを先に並べる
+                    pairs.add(Math.min(idA, idB));
+                    pairs.add(Math.max(idA, idB));
+                }
+            }
+        }
+    }
+
+    // 指定した範囲と重なっていて、種類(category)と衝突する相手の種類(mask)が合う登録済みのidをresultに追加する
+    // (大量の弾を1つずつ登録済みのキャラクターと照らし合わせるために使う)
+    // findPairsと同じく、重なっている領域の左下の点が含まれるセルでのみ報告するので、グリッドを書き換えない
+    // 登録が終わった後なら、複数のスレッドから同時に呼び出せる
+    void query(float x, float y, float width, float height, int category, int mask, IntArray result) {
+        float right = x + width, top = y + height;
+        int c0 = column(x), c1 = column(right);
+        int r0 = row(y), r1 = row(top);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int node = cellHeads[r * columns + c]; node != -1; node = nodeNext[node]) {
+                    int id = nodeIds[node];
+                    if ((categories[id] & mask) == 0 || (category & masks[id]) == 0) continue;
+                    if (!(minX[id] < right && maxX[id] > x && minY[id] < top && maxY[id] > y)) continue;
+                    if (column(Math.max(minX[id], x)) != c || row(Math.max(minY[id], y)) != r) continue;
+                    result.add(id);
+                }
+            }
+        }
+    }
+
+    // 2つのキャラクターの境界が重なっているか (Rectangle.overlapsと同じ判定)
+    boolean overlaps(int a, int b) {
+        return minX[a] < maxX[b] && maxX[a] > minX[b] && minY[a] < maxY[b] && maxY[a] > minY[b];
+    }
+
+    int size() {
+        return count;
+    }
+
+    // 画面外の座標は端のセルに含める
+    private int column(float x) {
+        int c = (int)(x / cellSize);
+        if (x < 0 || c < 0) return 0;
+        return c >= columns ? columns - 1 : c;
+    }
+
+    private int row(float y) {
+        int r = (int)(y / cellSize);
+        if (y < 0 || r < 0) return 0;
+        return r >= rows ? rows - 1 : r;
+    }
+
+    private void growBounds() {
+        int size = minX.length * 2;
+        minX = copyOf(minX, size);
+        minY = copyOf(minY, size);
+        maxX = copyOf(maxX, size);
+        maxY = copyOf(maxY, size);
+        categories = copyOf(categories, size);
+        masks = copyOf(masks, size);
+    }
+
+    private void growNodes() {
+        int size = nodeIds.length * 2;
+        int[] ids = new int[size];
+        int[] next = new int[size];
+        System.arraycopy(nodeIds, 0, ids, 0, nodeCount);
+        System.arraycopy(nodeNext, 0, next, 0, nodeCount);
+        nodeIds = ids;
+        nodeNext = next;
+    }
+
+    private static float[] copyOf(float[] array, int size) {
+        float[] copy = new float[size];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int size) {
+        int[] copy = new int[size];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
@@ -0,0 +1,48 @@
+package com.hide.shooting;
+
+// 1ティックの間に動いた2つの箱(AABB)が、移動の途中で重なったかを調べる (連続的な衝突判定)
+// 速い弾が1ティックで敵機を飛び越えてしまわないように、ティックの始めと終わりの位置だけでなく移動の区間全体で判定する
+// 2つの箱はティックの間に直線で等速に動くものとし、aのbに対する相対的な移動(レイ)とbの大きさ分だけ広げた箱の交差を調べる
+final class SweptAabb {
+
+    private SweptAabb() {
+    }
+
+    // a: ティックの始めの位置(ax, ay)・大きさ・ティックの間の移動量(adx, ady)。bも同じ
+    // 重なりの判定はRectangle.overlapsと同じく境界が接しているだけでは重なっていないとする
+    // 移動量が両方とも0なら、静止した箱同士の判定と同じ結果になる
+    static boolean overlaps(float ax, float ay, float aw, float ah, float adx, float ady,
+                            float bx, float by, float bw, float bh, float bdx, float bdy) {
+        float dx = adx - bdx;
+        float dy = ady - bdy;
+        // 軸ごとに、重なっている時刻の範囲(enter, exit)を求める
+        float enter = Float.NEGATIVE_INFINITY;
+        float exit = Float.POSITIVE_INFINITY;
+        float low = bx - (ax + aw);     // aの右端がbの左端を越える移動量
+        float high = bx + bw - ax;      // aの左端がbの右端を越える移動量
+        if (dx == 0) {
+            if (low >= 0 || high <= 0) return false;
+        } else {
+            float t0 = low / dx, t1 = high / dx;
+            enter = Math.min(t0, t1);
+            exit = Math.max(t0, t1);
+        }
+        low = by - (ay + ah);
+        high = by + bh - ay;
+        if (dy == 0) {
+            if (low >= 0 || high <= 0) return false;
+        } else {
+            float t0 = low / dy, t1 = high / dy;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        // 両方の軸で重なっている時刻があり、それがティックの間(0〜1)に入っているか
+        return enter < exit && enter < 1 && exit > 0;
+    }
+
+    // 2つのキャラクターが、1つ前のティックの位置から現在の位置に動く間に重なったか
+    static boolean overlaps(Entity a, Entity b) {
+        return overlaps(a.prevX, a.prevY, a.width, a.height, a.x - a.prevX, a.y - a.prevY,
+                b.prevX, b.prevY, b.width, b.height, b.x - b.prevX, b.y - b.prevY);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+// 使用中のオブジェクトと統計情報(ヒット数・ミス数・最大使用数)を記録するプール
+// ミス数がゲーム開始直後から増えなければ、ゲーム中に新たなオブジェクトを生成していないことになる
+abstract class TrackedPool<T> extends Pool<T> {
+
+    final String name;
+    private final Array<T> active = new Array<T>(false, 16);
+    private int hits;       // 空きオブジェクトを再利用できた回数
+    private int misses;     // 空きがなく新たに生成した回数
+    private int highWater;  // 同時に使用されたオブジェクト数の最大値
+
+    TrackedPool(String name) {
+        super();
+        this.name = name;
+    }
+
+    @Override
+    public T obtain() {
+        if (getFree() > 0) {
+            hits++;
+        } else {
+            misses++;
+        }
+        T object = super.obtain();
+        active.add(object);
+        if (active.size > highWater) highWater = active.size;
+        return object;
+    }
+
+    @Override
+    public void free(T object) {
+        // 二重に返却されたオブジェクトは無視する
+        if (!active.removeValue(object, true)) return;
+        super.free(object);
+    }
+
+    // 使用中のオブジェクトを全てプールに返却する
+    void freeActive() {
+        while (active.size > 0) {
+            free(active.peek());
+        }
+    }
+
+    // 使用中のオブジェクト (返却されると要素が取り除かれるので、走査は末尾から行うこと)
+    Array<T> getActive() {
+        return active;
+    }
+
+    int getActiveCount() {
+        return active.size;
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    int getHighWater() {
+        return highWater;
+    }
+
+    void resetStats() {
+        hits = 0;
+        misses = 0;
+        highWater = active.size;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": active=" + active.size + " free=" + getFree()
+                + " hits=" + hits + " misses=" + misses + " highWater=" + highWater;
+    }
+}
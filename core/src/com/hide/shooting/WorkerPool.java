@@ -0,0 +1,135 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+// 配列の処理を複数のスレッドで分担して実行するためのスレッドプール
+// 0〜countの範囲をスレッド数で均等に区切り、区間(チャンク)ごとに並列に処理して、全て終わるまで待つ
+// 区切り方はスレッド数と要素数だけで決まるので、同じ入力なら毎回同じ区間に分かれる
+// スレッド数が1の場合は呼び出したスレッドでそのまま実行する
+//
+// Android(API 8)とJava 6で動くように、ForkJoinPoolではなく常駐スレッドとwait/notifyで実装している
+// 実行のたびにオブジェクトを生成しない
+final class WorkerPool implements Disposable {
+
+    // 区間ごとの処理
+    interface Task {
+        void run(int chunk, int start, int end);
+    }
+
+    final int threads;
+    private final Thread[] workers;
+    private final Object lock = new Object();
+    private Task task;              // 実行中の処理
+    private int count;             // 処理する要素数
+    private int chunks;            // 区間の数
+    private int generation;        // 実行のたびに増える番号 (ワーカーが新しい仕事を見分けるため)
+    private int pending;           // 終わっていないワーカーの区間の数
+    private Throwable failure;     // ワーカーで発生した例外
+    private boolean disposed;
+
+    WorkerPool(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        this.threads = threads;
+        workers = new Thread[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            final int chunk = i + 1;    // 区間0は呼び出したスレッドが受け持つ
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work(chunk);
+                }
+            }, "world-worker-" + chunk);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    // 区間の数 (区間ごとの作業領域を用意する場合に使う)
+    int maxChunks() {
+        return threads;
+    }
+
+    // 0〜countの範囲をminChunkSize以上の区間に分けて並列に処理し、全ての区間が終わるまで待つ
+    void run(int count, int minChunkSize, Task task) {
+        int chunks = Math.max(1, Math.min(threads, count / Math.max(1, minChunkSize)));
+        if (chunks == 1) {
+            task.run(0, 0, count);
+            return;
+        }
+        synchronized (lock) {
+            this.task = task;
+            this.count = count;
+            this.chunks = chunks;
+            this.pending = chunks - 1;
+            this.failure = null;
+            generation++;
+            lock.notifyAll();
+        }
+        Throwable callerFailure = null;
+        try {
+            task.run(0, 0, end(0, count, chunks));
+        } catch (Throwable e) {
+            callerFailure = e;
+        }
+        synchronized (lock) {
+            while (pending > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GdxRuntimeException(e);
+                }
+            }
+            this.task = null;
+            if (callerFailure == null) callerFailure = failure;
+        }
+        if (callerFailure != null) throw new GdxRuntimeException("Worker task failed", callerFailure);
+    }
+
+    private void work(int chunk) {
+        int seen = 0;
+        while (true) {
+            Task task;
+            int count, chunks;
+            synchronized (lock) {
+                while (!disposed && generation == seen) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (disposed) return;
+                seen = generation;
+                task = this.task;
+                count = this.count;
+                chunks = this.chunks;
+            }
+            if (chunk >= chunks) continue;  // 要素数が少なく、このワーカーの区間がない
+            Throwable error = null;
+            try {
+                task.run(chunk, end(chunk - 1, count, chunks), end(chunk, count, chunks));
+            } catch (Throwable e) {
+                error = e;
+            }
+            synchronized (lock) {
+                if (error != null && failure == null) failure = error;
+                if (--pending == 0) lock.notifyAll();
+            }
+        }
+    }
+
+    // chunk番目の区間の終わり (次の区間の始まり)
+    private static int end(int chunk, int count, int chunks) {
+        return (int)((long)count * (chunk + 1) / chunks);
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            disposed = true;
+            lock.notifyAll();
+        }
+    }
+}
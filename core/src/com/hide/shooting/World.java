@@ -0,0 +1,588 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+// ゲームのシミュレーション (描画・音・端末の入力から切り離したゲームの状態と進行)
+// 経過時間と入力はstep()の引数で、乱数は種(seed)を指定して渡すので、
+// 同じ種・同じ経過時間・同じ入力を与えれば、何度実行しても同じ結果になる
+// GLや音声を使わないので、ヘッドレス環境(headless backend)や通常のJavaプログラムからも動かせる
+//
+// WorkerPoolを設定すると、敵機の移動・弾の移動・弾の衝突判定の検索を複数のスレッドで分担する
+// 並列に行うのは他のキャラクターに影響しない計算だけで、乱数・発射・削除・衝突時の処理は
+// 1つのスレッドで決まった順に行うので、スレッド数に関係なく同じ結果になる
+final class World {
+
+    static final float WIDTH = 1080;    // ステージの幅
+    static final float HEIGHT = 1776;   // ステージの高さ
+    static final int GOAL_DISTANCE = 100;       // ゲームクリアになる進行距離
+    static final int MAX_BEAMS = 3;             // 同時に撃てるビームの数
+    static final float BEAM_TIME = .5f;         // ビームがステージの高さの分だけ進む時間
+    static final float THROTTLE_STEP = .5f;     // 抑制の1段階ごとに、敵の出現・発射の間隔を伸ばす割合
+    static final float PLAYER_SPEED = 200;      // 端末の傾き1あたりのスペースシップの移動速度
+    static final float GAME_OVER_DELAY = 2.f;       // プレイヤーの爆破からゲームオーバーの演出までの時間
+    static final float LOSE_RESTART_DELAY = 4.5f;   // ゲームオーバーの演出からリスタート待ちまでの時間
+    static final float WIN_RESTART_DELAY = 2.5f;    // ゲームクリアからリスタート待ちまでの時間
+    static final int MIN_PARALLEL_ENEMIES = 64;         // 並列に動かす1区間あたりの最小の敵機の数
+    static final int MIN_PARALLEL_PROJECTILES = 1024;   // 並列に処理する1区間あたりの最小の弾の数
+
+    final Difficulty difficulty;
+    final long seed;
+    final Level level;              // 敵の出現のしかた (nullならランダムな間隔で1機ずつ出現させる)
+    private final RandomXS128 random;
+    private WorldListener listener = new WorldListener();
+    private FrameProfiler profiler;     // 処理時間の計測 (nullなら計測しない)
+    private WorkerPool workers;         // 並列処理用のスレッドプール (nullなら全て呼び出したスレッドで処理する)
+
+    private GameStatus status = GameStatus.PLAYING;
+    private int score;
+    private float playTime;         // ゲーム開始からの経過時間 (進行距離になる)
+    private float spawnTimer;       // 最後に敵を発生させてからの経過時間
+    private float levelTime;        // ステージの経過時間 (ステージが繰り返す時に0に戻る)
+    private final int[] waveSpawned;    // ウェーブごとの出現させた敵機の数
+    final Scheduler scheduler = new Scheduler();    // 状態の移り変わりの予定 (シミュレーションの時間で動く)
+    private long tick;              // step()の呼び出し回数
+
+    final Entity player = new Entity();
+    private boolean playerAlive = true;
+    final TrackedPool<Entity> enemies = new TrackedPool<Entity>("enemy") {
+        @Override
+        protected Entity newObject() {
+            return new Entity();
+        }
+    };
+    final ProjectileSystem projectiles;
+
+    private final SpatialHash collisionGrid = new SpatialHash(WIDTH, HEIGHT, 256);
+    private final CollisionMatrix<Entity> collisionMatrix;
+    private final Array<Entity> colliders = new Array<Entity>(false, 64);
+    private final IntArray contacts = new IntArray(false, 64);
+    private IntArray[] projectileHits = { new IntArray(false, 16) };   // 区間ごとの弾の衝突 (弾の添字とidが2つずつ並ぶ)
+    private IntArray[] queryResults = { new IntArray(false, 16) };     // 区間ごとの1発分の検索結果
+    private float stepDelta;            // 並列処理に渡す更新の時間刻み
+    private float throttleScale = 1;    // 敵の出現・発射の間隔を伸ばす倍率 (PlayerInput.throttleから決める)
+
+    World(Difficulty difficulty, long seed) {
+        this(difficulty, seed, null);
+    }
+
+    World(Difficulty difficulty, long seed, Level level) {
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.level = level;
+        this.waveSpawned = new int[level == null ? 0 : level.waves.size];
+        this.random = new RandomXS128(seed);
+        // 弾は最大32768発まで同時に存在できる
+        projectiles = new ProjectileSystem(32768, WIDTH, HEIGHT);
+        projectiles.setSize(EntityKind.BEAM, EntityKind.BEAM.width, EntityKind.BEAM.height);
+        projectiles.setSize(EntityKind.ENEMY_BEAM, EntityKind.ENEMY_BEAM.width, EntityKind.ENEMY_BEAM.height);
+
+        // キャラクターの種類の組み合わせごとに衝突した時の処理を登録する
+        CollisionMatrix.ContactHandler<Entity> playerHit = new CollisionMatrix.ContactHandler<Entity>() {
+            @Override
+            public void onContact(Entity player, Entity enemy) {
+                explodePlayer();
+            }
+        };
+        collisionMatrix = new CollisionMatrix<Entity>()
+            .on(EntityKind.PLAYER, EntityKind.ENEMY, playerHit)         // プレイヤーが敵に触れた場合
+            .on(EntityKind.PLAYER, EntityKind.ENEMY_BEAM, playerHit)    // プレイヤーが敵のビームに触れた場合
+            .on(EntityKind.ENEMY, EntityKind.BEAM, new CollisionMatrix.ContactHandler<Entity>() {  // 敵がビームに触れた場合
+                @Override
+                public void onContact(Entity enemy, Entity beam) {
+                    explodeEnemy(enemy);
+                }
+            });
+
+        // スペースシップを画面下端中央に配置する
+        player.set(EntityKind.PLAYER);
+        player.x = WIDTH * .5f - player.width * .5f;
+        player.y = 0;
+        player.savePrevious();
+    }
+
+    void setListener(WorldListener listener) {
+        this.listener = listener;
+    }
+
+    void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // 並列処理に使うスレッドプールを設定する (nullなら並列に処理しない)
+    void setWorkers(WorkerPool workers) {
+        this.workers = workers;
+        int chunks = workers == null ? 1 : workers.maxChunks();
+        projectileHits = new IntArray[chunks];
+        queryResults = new IntArray[chunks];
+        for (int i = 0; i < chunks; i++) {
+            projectileHits[i] = new IntArray(false, 16);
+            queryResults[i] = new IntArray(false, 16);
+        }
+    }
+
+    // 0〜countの範囲を区間に分けてtaskを実行する (スレッドプールがなければ1つの区間として実行する)
+    private void parallel(int count, int minChunkSize, WorkerPool.Task task) {
+        if (workers == null) {
+            task.run(0, 0, count);
+        } else {
+            workers.run(count, minChunkSize, task);
+        }
+    }
+
+    // シミュレーションをdelta秒だけ進める
+    // (描画の間隔に左右されないように、通常はFixedTimestepで決めた一定の時間を渡す)
+    void step(float delta, PlayerInput input) {
+        tick++;
+        // 描画時の補間のために、動かす前の位置を記録しておく
+        player.savePrevious();
+        Array<Entity> active = enemies.getActive();
+        for (int i = 0; i < active.size; i++) {
+            active.get(i).savePrevious();
+        }
+        // タッチアップでビームを発射する
+        for (int i = 0; i < input.fire; i++) fireBeam();
+
+        stepDelta = delta;
+        throttleScale = 1 + THROTTLE_STEP * input.throttle;
+        updateEnemies(delta);
+        parallel(projectiles.size(), MIN_PARALLEL_PROJECTILES, integrateProjectiles);
+
+        if (status == GameStatus.GAME_WIN || status == GameStatus.WAIT_TO_RESTART_FROM_WIN) {
+            if (profiler != null) profiler.begin(FrameProfiler.Phase.CONTROL_PLAYER);
+            controlPlayer(input, delta);
+            if (profiler != null) profiler.end(FrameProfiler.Phase.CONTROL_PLAYER);
+            if (status == GameStatus.WAIT_TO_RESTART_FROM_WIN && input.restart) restart();
+        } else if (status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) {
+            if (input.touched) restart();
+        } else if (status == GameStatus.PLAYING) {
+            if (profiler != null) profiler.begin(FrameProfiler.Phase.CONTROL_PLAYER);
+            controlPlayer(input, delta);
+            if (profiler != null) profiler.end(FrameProfiler.Phase.CONTROL_PLAYER);
+            if (profiler != null) profiler.begin(FrameProfiler.Phase.SPAWN);
+            if (level != null) {
+                // ステージで決められた時刻に敵を発生させる
+                updateWaves(delta / throttleScale);   // 抑制中はステージの進みを遅くして、出現の間隔を伸ばす
+            } else {
+                // ランダムな間隔(通常モードでは3秒〜6秒)で敵を発生させる
+                spawnTimer += delta / throttleScale;
+                if (spawnTimer > random(difficulty.spawnIntervalMin, difficulty.spawnIntervalMax)) spawnEnemy();
+            }
+            if (profiler != null) profiler.end(FrameProfiler.Phase.SPAWN);
+            // ゲーム開始からの経過時間から、進行距離を計算する
+            playTime += delta;
+            // 進行距離がゴールを超えたらゲームクリア
+            if (getDistance() > GOAL_DISTANCE) gameWin();
+            // ゲームキャラクター同士に衝突がないかチェックする
+            if (status == GameStatus.PLAYING) {
+                if (profiler != null) profiler.begin(FrameProfiler.Phase.CHECK_COLLISIONS);
+                checkCollisions();
+                if (profiler != null) profiler.end(FrameProfiler.Phase.CHECK_COLLISIONS);
+            }
+        }
+        // 時間切れや画面外で消える弾も、このティックで動いた区間の衝突判定が終わってから削除する
+        projectiles.compact();
+        scheduler.update(delta);
+        input.consume();
+    }
+
+    private void fireBeam() {
+        if (status == GameStatus.GAME_OVER ||
+                status == GameStatus.WAIT_TO_RESTART_FROM_WIN ||
+                status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) return;
+        if (projectiles.count(EntityKind.BEAM) >= MAX_BEAMS) return;   // ビーム発射数が3発以下なら新たにビームを発射する
+        // ビームがスペースシップの先端中央から発射され、ステージの高さの分だけ0.5秒で前に進むようにする
+        projectiles.spawn(EntityKind.BEAM,
+                player.x + player.width * .5f - EntityKind.BEAM.width * .5f, player.y + player.height * .5f,
+                0, HEIGHT / BEAM_TIME, BEAM_TIME);
+        listener.onBeamFired(this);
+    }
+
+    // プレイヤーを操縦する
+    private void controlPlayer(PlayerInput input, float delta) {
+        // 端末が横方向に傾いたら、傾き量に応じてスペースシップを横方向に移動させる
+        if (Math.abs(input.accelX) > 0.2) player.x -= PLAYER_SPEED * input.accelX * delta;
+        // 端末が縦方向に傾いたら、傾き量に応じてスペースシップを縦方向に移動させる
+        if (Math.abs(input.accelY) > 0.2) player.y -= PLAYER_SPEED * input.accelY * delta;
+        // スペースシップが画面からはみ出さないようにする
+        player.x = MathUtils.clamp(player.x, 0, WIDTH - player.width);
+        player.y = MathUtils.clamp(player.y, 0, HEIGHT - player.height);
+    }
+
+    // 敵機を発生させる (ベンチマークから呼び出せるようにパッケージプライベートにしておく)
+    void spawnEnemy() {
+        Entity enemy = enemies.obtain();
+        enemy.set(EntityKind.ENEMY);
+        enemy.x = random(0, WIDTH - enemy.width);
+        enemy.y = HEIGHT;
+        enemy.savePrevious();
+        // 画面を3秒〜6秒の時間で縦に移動する
+        enemy.descentTime = 3 + random.nextInt(4);
+        enemy.descentSpeed = (HEIGHT + enemy.height) / enemy.descentTime;
+        // それと同時に、0.5秒〜1秒の間隔で横方向に不規則に動く
+        enemy.zigzagDelay = (50 + random.nextInt(51)) / 100.f;
+        enemy.zigzagTimer = enemy.zigzagDelay;
+        setupFire(enemy, true);
+        spawnTimer = 0;
+        listener.onEnemySpawned(this, enemy);
+    }
+
+    // 経路に沿って動く敵機を発生させる (offsetは経路からの横のずれ)
+    void spawnEnemy(EnemyPath path, float offset, boolean fires) {
+        Entity enemy = enemies.obtain();
+        enemy.set(EntityKind.ENEMY);
+        enemy.path = path;
+        enemy.pathOffset = offset;
+        moveAlongPath(enemy);
+        enemy.savePrevious();
+        setupFire(enemy, fires);
+        listener.onEnemySpawned(this, enemy);
+    }
+
+    private void setupFire(Entity enemy, boolean fires) {
+        // 不規則な間隔(通常モードでは0.5秒〜3秒)でビームを撃ち続ける
+        enemy.fires = fires;
+        enemy.fireDelay = random(difficulty.fireIntervalMin, difficulty.fireIntervalMax);
+        enemy.fireTimer = enemy.fireDelay;
+    }
+
+    // ステージの時間を進め、出現時刻になったウェーブの敵機を発生させる
+    private void updateWaves(float delta) {
+        levelTime += delta;
+        Array<Level.Wave> waves = level.waves;
+        for (int i = 0; i < waves.size; i++) {
+            Level.Wave wave = waves.get(i);
+            if (wave.time > levelTime) break;   // 出現時刻の順に並んでいるので、以降のウェーブはまだ
+            while (waveSpawned[i] < wave.count && wave.spawnTime(waveSpawned[i]) <= levelTime) {
+                spawnEnemy(wave.path, wave.offset(waveSpawned[i]), wave.fire);
+                waveSpawned[i]++;
+            }
+        }
+        // 最後まで進んだらステージを最初から繰り返す
+        if (level.loop > 0 && levelTime >= level.loop) resetWaves(levelTime - level.loop);
+    }
+
+    private void resetWaves(float time) {
+        levelTime = time;
+        for (int i = 0; i < waveSpawned.length; i++) waveSpawned[i] = 0;
+    }
+
+    // 経路上の経過時間から敵機の位置を決める
+    private static void moveAlongPath(Entity enemy) {
+        EnemyPath path = enemy.path;
+        enemy.x = path.x(enemy.pathTime) + enemy.pathOffset - enemy.width * .5f;
+        enemy.y = path.y(enemy.pathTime) - enemy.height * .5f;
+    }
+
+    private void updateEnemies(float delta) {
+        // 乱数を使わない移動は敵機ごとに独立しているので、先にまとめて(並列に)進める
+        Array<Entity> active = enemies.getActive();
+        parallel(active.size, MIN_PARALLEL_ENEMIES, moveEnemies);
+        // 乱数・発射・削除は毎回同じ順序で行う
+        for (int i = active.size - 1; i >= 0; i--) {
+            Entity enemy = active.get(i);
+            boolean finished;
+            if (enemy.path != null) {
+                // 経路の終わりまで来たら削除する
+                finished = enemy.pathTime >= enemy.path.duration;
+            } else {
+                zigzag(enemy, delta);
+                // 画面下に抜けたら削除する
+                enemy.descentTime -= delta;
+                finished = enemy.descentTime <= 0;
+            }
+            if (enemy.fires) {
+                enemy.fireTimer -= delta / throttleScale;   // 抑制中は発射の間隔を伸ばす
+                if (enemy.fireTimer <= 0) {
+                    enemy.fireTimer += enemy.fireDelay;
+                    spawnEnemyBeam(enemy);
+                }
+            }
+            if (finished) enemies.free(enemy);
+        }
+    }
+
+    // 経路に沿って動く敵機は経路を進め、ランダムに動く敵機は下に進める
+    private final WorkerPool.Task moveEnemies = new WorkerPool.Task() {
+        @Override
+        public void run(int chunk, int start, int end) {
+            Array<Entity> active = enemies.getActive();
+            float delta = stepDelta;
+            for (int i = start; i < end; i++) {
+                Entity enemy = active.get(i);
+                if (enemy.path != null) {
+                    enemy.pathTime += delta;
+                    moveAlongPath(enemy);
+                } else {
+                    enemy.y -= enemy.descentSpeed * delta;
+                }
+            }
+        }
+    };
+
+    private final WorkerPool.Task integrateProjectiles = new WorkerPool.Task() {
+        @Override
+        public void run(int chunk, int start, int end) {
+            projectiles.integrate(start, end, stepDelta);
+        }
+    };
+
+    // 横方向に不規則に動く (毎回違う量だけ0.5秒かけて動く)
+    private void zigzag(Entity enemy, float delta) {
+        enemy.zigzagTimer -= delta;
+        if (enemy.zigzagTimer <= 0) {
+            enemy.zigzagTimer += enemy.zigzagDelay;
+            enemy.zigzagSpeed = (random.nextInt(401) - 200) / .5f;
+            enemy.zigzagTime = .5f;
+        }
+        if (enemy.zigzagTime > 0) {
+            float t = Math.min(delta, enemy.zigzagTime);
+            enemy.x += enemy.zigzagSpeed * t;
+            enemy.zigzagTime -= t;
+        }
+    }
+
+    // 敵機にビームを撃たせる
+    void spawnEnemyBeam(Entity enemy) {
+        float beamWidth = EntityKind.ENEMY_BEAM.width;
+        float beamHeight = EntityKind.ENEMY_BEAM.height;
+        float speed = difficulty.bulletSpeed;
+        int bullets = difficulty.bulletsPerShot;
+        if (bullets == 1) {
+            // 敵機の下端中央から真下に、ステージの高さの分だけ進むビームを撃つ
+            projectiles.spawn(EntityKind.ENEMY_BEAM, enemy.x + enemy.width * .5f - beamWidth * .5f, enemy.y,
+                    0, -speed, HEIGHT / speed);
+        } else {
+            // 敵機の中心から全方向に弾をばらまく (撃つたびに角度をずらす)
+            float cx = enemy.x + enemy.width * .5f - beamWidth * .5f;
+            float cy = enemy.y + enemy.height * .5f - beamHeight * .5f;
+            float offset = random(0, 360.f / bullets);
+            for (int i = 0; i < bullets; i++) {
+                float angle = offset + 360.f * i / bullets;
+                projectiles.spawn(EntityKind.ENEMY_BEAM, cx, cy,
+                        MathUtils.cosDeg(angle) * speed, MathUtils.sinDeg(angle) * speed, 10.f);
+            }
+        }
+        listener.onEnemyFired(this, enemy);
+    }
+
+    // ゲーム中のキャラクターの衝突をチェックする
+    // 1. 衝突判定の対象になるキャラクターだけを、このティックで動いた範囲の境界でグリッドに登録する
+    // 2. 同じセルにいて、衝突する種類同士で、動いた範囲が重なっている組み合わせだけを取り出す
+    // 3. 移動の途中で実際に重なったか(SweptAabb)を確かめ、組み合わせごとに登録された処理(collisionMatrix)を呼び出す
+    // ティックの間の移動全体で判定するので、ティックの頻度を下げて弾が1ティックで長く進んでも衝突を見逃さない
+    void checkCollisions() {
+        colliders.clear();
+        collisionGrid.clear();
+        if (playerAlive) addCollider(player);
+        Array<Entity> active = enemies.getActive();
+        for (int i = 0; i < active.size; i++) {
+            addCollider(active.get(i));
+        }
+
+        contacts.clear();
+        collisionGrid.findPairs(contacts);
+        for (int i = 0; i < contacts.size; i += 2) {
+            Entity a = colliders.get(contacts.get(i));
+            Entity b = colliders.get(contacts.get(i + 1));
+            // 同じ更新の中で既に爆破されたキャラクターは無視する
+            if (!isAlive(a) || !isAlive(b)) continue;
+            if (!SweptAabb.overlaps(a, b)) continue;
+            collisionMatrix.dispatch(a.kind, a, b.kind, b);
+        }
+
+        // 弾ごとに、動いた区間で重なったキャラクターをグリッドから探す (弾同士は衝突しない)
+        // 検索はグリッドを書き換えないので並列に行い、見つかった衝突の処理は弾の順に行う
+        parallel(projectiles.size(), MIN_PARALLEL_PROJECTILES, queryProjectiles);
+        for (int chunk = 0; chunk < projectileHits.length; chunk++) {
+            IntArray hits = projectileHits[chunk];
+            for (int i = 0; i < hits.size; i += 2) {
+                EntityKind kind = projectiles.kindOf(hits.get(i));
+                Entity entity = colliders.get(hits.get(i + 1));
+                if (!isAlive(entity)) continue;
+                collisionMatrix.dispatch(entity.kind, entity, kind, null);
+            }
+            hits.clear();
+        }
+    }
+
+    private final WorkerPool.Task queryProjectiles = new WorkerPool.Task() {
+        @Override
+        public void run(int chunk, int start, int end) {
+            IntArray hits = projectileHits[chunk];
+            IntArray found = queryResults[chunk];
+            ProjectileSystem p = projectiles;
+            for (int i = start; i < end; i++) {
+                EntityKind kind = p.kindOf(i);
+                float x = p.prevX[i], y = p.prevY[i], width = p.width(i), height = p.height(i);
+                float dx = p.x[i] - x, dy = p.y[i] - y;
+                found.clear();
+                collisionGrid.query(Math.min(x, p.x[i]), Math.min(y, p.y[i]), width + Math.abs(dx), height + Math.abs(dy),
+                        kind.category, collisionMatrix.mask(kind), found);
+                for (int j = 0; j < found.size; j++) {
+                    int id = found.get(j);
+                    Entity e = colliders.get(id);
+                    if (!SweptAabb.overlaps(x, y, width, height, dx, dy, e.prevX, e.prevY, e.width, e.height, e.x - e.prevX, e.y - e.prevY)) continue;
+                    hits.add(i);
+                    hits.add(id);
+                }
+            }
+        }
+    };
+
+    private void addCollider(Entity entity) {
+        // グリッド上のidはcollidersの添字と同じになる
+        // 境界は1つ前のティックの位置から現在の位置までに動いた範囲全体にする
+        collisionGrid.insert(Math.min(entity.x, entity.prevX), Math.min(entity.y, entity.prevY),
+                entity.width + Math.abs(entity.x - entity.prevX), entity.height + Math.abs(entity.y - entity.prevY),
+                entity.kind.category, collisionMatrix.mask(entity.kind));
+        colliders.add(entity);
+    }
+
+    private boolean isAlive(Entity entity) {
+        if (entity == player) return playerAlive;
+        return entity.kind != null;     // プールに返却された敵機はkindがnullになる
+    }
+
+    // プレイヤーを爆破させる
+    private void explodePlayer() {
+        if (!playerAlive) return;
+        playerAlive = false;
+        status = GameStatus.GAME_OVER;  // ステータスをゲームオーバーにする
+        scheduler.schedule(GAME_OVER_DELAY, showGameOver);  // 爆発が終わった後(2秒後)にゲームオーバーの演出をする
+        listener.onPlayerExploded(this, player);
+    }
+
+    // 敵を爆破させる
+    private void explodeEnemy(Entity enemy) {
+        listener.onEnemyExploded(this, enemy);
+        enemies.free(enemy);
+        score += 10;    // スコアを10点加算する
+        listener.onScoreChanged(this, score);
+    }
+
+    // ゲームクリアにする
+    private void gameWin() {
+        status = GameStatus.GAME_WIN;
+        listener.onGameWin(this);
+        // 画面上の敵機を全て爆破し、敵のビームを全て消す
+        // (爆破した敵機はプールに返却されて使用中リストから取り除かれるので、末尾から走査する)
+        Array<Entity> active = enemies.getActive();
+        for (int i = active.size - 1; i >= 0; i--) {
+            explodeEnemy(active.get(i));
+        }
+        projectiles.removeAll(EntityKind.ENEMY_BEAM);
+        scheduler.schedule(WIN_RESTART_DELAY, waitToRestartFromWin);
+    }
+
+    // ゲームオーバーの演出を始め、演出が終わった後にリスタート待ちにする
+    private final Runnable showGameOver = new Runnable() {
+        @Override
+        public void run() {
+            listener.onGameOver(World.this);
+            scheduler.schedule(LOSE_RESTART_DELAY, waitToRestartFromLose);
+        }
+    };
+
+    private final Runnable waitToRestartFromLose = new Runnable() {
+        @Override
+        public void run() {
+            status = GameStatus.WAIT_TO_RESTART_FROM_LOSE;
+            listener.onWaitToRestart(World.this, status);
+        }
+    };
+
+    private final Runnable waitToRestartFromWin = new Runnable() {
+        @Override
+        public void run() {
+            status = GameStatus.WAIT_TO_RESTART_FROM_WIN;
+            listener.onWaitToRestart(World.this, status);
+        }
+    };
+
+    // ゲームリスタート時のセットアップを行う
+    void restart() {
+        GameStatus previous = status;
+        if (status == GameStatus.WAIT_TO_RESTART_FROM_LOSE) {
+            // スペースシップを配置し直す
+            player.x = WIDTH * .5f - player.width * .5f;
+            player.y = 0;
+            player.savePrevious();  // 元の位置から補間しないようにする
+            playerAlive = true;
+        }
+        status = GameStatus.PLAYING;
+        score = 0;              // スコアを0にリセットする
+        playTime = 0;           // ゲーム開始時刻を現在にセットする
+        scheduler.reset();      // 前のゲームの予定を取り消し、時刻を0に戻す
+        resetWaves(0);          // ステージを最初から始める
+        listener.onRestart(this, previous);
+        listener.onScoreChanged(this, score);
+    }
+
+    private float random(float min, float max) {
+        return min + random.nextFloat() * (max - min);
+    }
+
+    GameStatus getStatus() {
+        return status;
+    }
+
+    int getScore() {
+        return score;
+    }
+
+    // 進行距離 (ゲーム開始からの経過秒数)
+    int getDistance() {
+        return (int)playTime;
+    }
+
+    boolean isPlayerAlive() {
+        return playerAlive;
+    }
+
+    long getTick() {
+        return tick;
+    }
+
+    // シミュレーションの状態のハッシュ値 (リプレイが記録時と同じ結果になっているかの確認に使う)
+    // 乱数の状態・進行状況・全てのキャラクターと弾の位置を含める
+    int stateHash() {
+        int h = 17;
+        h = mix(h, (int)tick);
+        h = mix(h, status.ordinal());
+        h = mix(h, score);
+        h = mix(h, Float.floatToIntBits(playTime));
+        h = mix(h, Float.floatToIntBits(spawnTimer));
+        h = mix(h, Float.floatToIntBits(levelTime));
+        long schedulerTime = Double.doubleToLongBits(scheduler.getTime());
+        h = mix(h, (int)schedulerTime);
+        h = mix(h, (int)(schedulerTime >>> 32));
+        h = mix(h, scheduler.size());
+        h = mix(h, (int)random.getState(0));
+        h = mix(h, (int)random.getState(1));
+        h = mix(h, playerAlive ? 1 : 0);
+        h = mix(h, Float.floatToIntBits(player.x));
+        h = mix(h, Float.floatToIntBits(player.y));
+        Array<Entity> active = enemies.getActive();
+        h = mix(h, active.size);
+        for (int i = 0; i < active.size; i++) {
+            Entity enemy = active.get(i);
+            h = mix(h, Float.floatToIntBits(enemy.x));
+            h = mix(h, Float.floatToIntBits(enemy.y));
+            h = mix(h, Float.floatToIntBits(enemy.fireTimer));
+        }
+        h = mix(h, projectiles.size());
+        for (int i = 0; i < projectiles.size(); i++) {
+            h = mix(h, projectiles.kind[i]);
+            h = mix(h, Float.floatToIntBits(projectiles.x[i]));
+            h = mix(h, Float.floatToIntBits(projectiles.y[i]));
+        }
+        return h;
+    }
+
+    private static int mix(int hash, int value) {
+        return hash * 31 + value;
+    }
+}
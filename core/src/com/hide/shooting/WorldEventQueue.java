@@ -0,0 +1,125 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+// シミュレーションで起きた出来事を記録しておき、後で描画側のスレッドから別のリスナーに届けるクラス
+// 別のスレッドでシミュレーションを進めている間は、演出(ステージ・音)に触れられないので、
+// 出来事を記録だけしておき、更新が終わった後にdeliver()でまとめて演出を行う
+// キャラクターは届けるまでにプールで再利用されるので、位置と大きさを写して記録する
+final class WorldEventQueue extends WorldListener {
+
+    private static final int BEAM_FIRED = 0;
+    private static final int ENEMY_SPAWNED = 1;
+    private static final int ENEMY_FIRED = 2;
+    private static final int ENEMY_EXPLODED = 3;
+    private static final int PLAYER_EXPLODED = 4;
+    private static final int SCORE_CHANGED = 5;
+    private static final int GAME_WIN = 6;
+    private static final int GAME_OVER = 7;
+    private static final int WAIT_TO_RESTART = 8;
+    private static final int RESTART = 9;
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final IntArray events = new IntArray(64);       // 出来事の種類と値(スコア・状態)が2つずつ並ぶ
+    private final FloatArray entities = new FloatArray(64); // キャラクターの出来事ごとの位置と大きさ
+    private final Entity entity = new Entity();             // 届ける時にキャラクターとして渡す
+
+    @Override
+    void onBeamFired(World world) {
+        add(BEAM_FIRED, 0);
+    }
+
+    @Override
+    void onEnemySpawned(World world, Entity enemy) {
+        add(ENEMY_SPAWNED, enemy);
+    }
+
+    @Override
+    void onEnemyFired(World world, Entity enemy) {
+        add(ENEMY_FIRED, enemy);
+    }
+
+    @Override
+    void onEnemyExploded(World world, Entity enemy) {
+        add(ENEMY_EXPLODED, enemy);
+    }
+
+    @Override
+    void onPlayerExploded(World world, Entity player) {
+        add(PLAYER_EXPLODED, player);
+    }
+
+    @Override
+    void onScoreChanged(World world, int score) {
+        add(SCORE_CHANGED, score);
+    }
+
+    @Override
+    void onGameWin(World world) {
+        add(GAME_WIN, 0);
+    }
+
+    @Override
+    void onGameOver(World world) {
+        add(GAME_OVER, 0);
+    }
+
+    @Override
+    void onWaitToRestart(World world, GameStatus status) {
+        add(WAIT_TO_RESTART, status.ordinal());
+    }
+
+    @Override
+    void onRestart(World world, GameStatus previous) {
+        add(RESTART, previous.ordinal());
+    }
+
+    private void add(int type, int value) {
+        events.add(type);
+        events.add(value);
+    }
+
+    private void add(int type, Entity entity) {
+        add(type, entity.kind.ordinal());
+        entities.add(entity.x);
+        entities.add(entity.y);
+        entities.add(entity.width);
+        entities.add(entity.height);
+    }
+
+    // 記録した出来事を起きた順にlistenerに届け、記録を消す
+    void deliver(WorldListener listener, World world) {
+        int e = 0;
+        for (int i = 0; i < events.size; i += 2) {
+            int type = events.get(i);
+            int value = events.get(i + 1);
+            if (type == ENEMY_SPAWNED || type == ENEMY_FIRED || type == ENEMY_EXPLODED || type == PLAYER_EXPLODED) {
+                entity.kind = EntityKind.VALUES[value];
+                entity.x = entities.get(e++);
+                entity.y = entities.get(e++);
+                entity.width = entities.get(e++);
+                entity.height = entities.get(e++);
+            }
+            switch (type) {
+                case BEAM_FIRED: listener.onBeamFired(world); break;
+                case ENEMY_SPAWNED: listener.onEnemySpawned(world, entity); break;
+                case ENEMY_FIRED: listener.onEnemyFired(world, entity); break;
+                case ENEMY_EXPLODED: listener.onEnemyExploded(world, entity); break;
+                case PLAYER_EXPLODED: listener.onPlayerExploded(world, entity); break;
+                case SCORE_CHANGED: listener.onScoreChanged(world, value); break;
+                case GAME_WIN: listener.onGameWin(world); break;
+                case GAME_OVER: listener.onGameOver(world); break;
+                case WAIT_TO_RESTART: listener.onWaitToRestart(world, STATUSES[value]); break;
+                case RESTART: listener.onRestart(world, STATUSES[value]); break;
+            }
+        }
+        events.clear();
+        entities.clear();
+    }
+
+    // 届けていない出来事の数
+    int size() {
+        return events.size / 2;
+    }
+}
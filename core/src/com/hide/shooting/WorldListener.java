@@ -0,0 +1,46 @@
+package com.hide.shooting;
+
+// シミュレーション(World)で起きた出来事を受け取るクラス
+// 音を鳴らす・爆発を表示するなどの演出はこのクラスを継承して行う (必要なメソッドだけを上書きすればよい)
+class WorldListener {
+
+    // プレイヤーがビームを撃った
+    void onBeamFired(World world) {
+    }
+
+    // 敵機が発生した
+    void onEnemySpawned(World world, Entity enemy) {
+    }
+
+    // 敵機がビームを撃った
+    void onEnemyFired(World world, Entity enemy) {
+    }
+
+    // 敵機が爆破された (この呼び出しの後、enemyはプールに返却される)
+    void onEnemyExploded(World world, Entity enemy) {
+    }
+
+    // プレイヤーが爆破された
+    void onPlayerExploded(World world, Entity player) {
+    }
+
+    // スコアが変わった
+    void onScoreChanged(World world, int score) {
+    }
+
+    // ゲームクリアになった
+    void onGameWin(World world) {
+    }
+
+    // プレイヤーが爆破されてから爆発が終わり、ゲームオーバーの演出を始める
+    void onGameOver(World world) {
+    }
+
+    // リスタート待ちになった (statusはWAIT_TO_RESTART_FROM_WINまたはWAIT_TO_RESTART_FROM_LOSE)
+    void onWaitToRestart(World world, GameStatus status) {
+    }
+
+    // リスタートした (previousはリスタート前の状態)
+    void onRestart(World world, GameStatus previous) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.utils.Array;
+
+// 描画に必要なシミュレーションの状態の写し
+// 2つ用意して交互に使い(ダブルバッファ)、片方にシミュレーションの結果を書き込んでいる間に、もう片方を描画する
+// 描画側はWorldを直接読まないので、描画中に別のスレッドで次の更新を進められる
+// 配列は必要になった時だけ大きくするので、毎フレームの写しではオブジェクトを生成しない
+final class WorldSnapshot {
+
+    long tick;
+    GameStatus status = GameStatus.PLAYING;
+    int score;
+    int distance;
+    float alpha;            // 描画する位置 (直前の2ティックの間のどこか。FixedTimestep.alpha())
+
+    boolean playerAlive;
+    float playerX, playerY, playerPrevX, playerPrevY;
+
+    int enemyCount;
+    float[] enemyX = new float[64];
+    float[] enemyY = new float[64];
+    float[] enemyPrevX = new float[64];
+    float[] enemyPrevY = new float[64];
+
+    int projectileCount;
+    final float[] projectileX;
+    final float[] projectileY;
+    final float[] projectilePrevX;
+    final float[] projectilePrevY;
+    final int[] projectileKind;
+    final int[] projectileCounts = new int[EntityKind.VALUES.length];  // 種類ごとの弾の数
+
+    WorldSnapshot(int projectileCapacity) {
+        projectileX = new float[projectileCapacity];
+        projectileY = new float[projectileCapacity];
+        projectilePrevX = new float[projectileCapacity];
+        projectilePrevY = new float[projectileCapacity];
+        projectileKind = new int[projectileCapacity];
+    }
+
+    // worldの現在の状態を写す (シミュレーションを進めているスレッドから呼び出す)
+    void copyFrom(World world) {
+        tick = world.getTick();
+        status = world.getStatus();
+        score = world.getScore();
+        distance = world.getDistance();
+
+        playerAlive = world.isPlayerAlive();
+        Entity player = world.player;
+        playerX = player.x;
+        playerY = player.y;
+        playerPrevX = player.prevX;
+        playerPrevY = player.prevY;
+
+        Array<Entity> enemies = world.enemies.getActive();
+        int count = enemies.size;
+        if (count > enemyX.length) {
+            int size = Math.max(count, enemyX.length * 2);
+            enemyX = new float[size];
+            enemyY = new float[size];
+            enemyPrevX = new float[size];
+            enemyPrevY = new float[size];
+        }
+        for (int i = 0; i < count; i++) {
+            Entity enemy = enemies.get(i);
+            enemyX[i] = enemy.x;
+            enemyY[i] = enemy.y;
+            enemyPrevX[i] = enemy.prevX;
+            enemyPrevY[i] = enemy.prevY;
+        }
+        enemyCount = count;
+
+        ProjectileSystem p = world.projectiles;
+        int size = p.size();
+        System.arraycopy(p.x, 0, projectileX, 0, size);
+        System.arraycopy(p.y, 0, projectileY, 0, size);
+        System.arraycopy(p.prevX, 0, projectilePrevX, 0, size);
+        System.arraycopy(p.prevY, 0, projectilePrevY, 0, size);
+        System.arraycopy(p.kind, 0, projectileKind, 0, size);
+        projectileCount = size;
+        for (int i = 0; i < projectileCounts.length; i++) projectileCounts[i] = p.count(EntityKind.VALUES[i]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.audio.AudioDevice;
+import com.badlogic.gdx.audio.AudioRecorder;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 生成されて、まだ破棄されていないSound・Musicの数を数えるAudio
+// ヘッドレス環境のAudioを包んで差し込み、ゲームを終了した後に破棄し忘れた音が残っていないかを調べる
+// (AssetManagerは別のスレッドから音を生成するので、数はスレッドセーフに数える)
+final class CountingAudio implements Audio {
+
+    private final Audio audio;
+    private final AtomicInteger liveSounds = new AtomicInteger();
+    private final AtomicInteger liveMusic = new AtomicInteger();
+    private final AtomicInteger doubleDisposes = new AtomicInteger();   // 同じ音を2回以上破棄した回数
+
+    CountingAudio(Audio audio) {
+        this.audio = audio;
+    }
+
+    @Override
+    public AudioDevice newAudioDevice(int samplingRate, boolean isMono) {
+        return audio.newAudioDevice(samplingRate, isMono);
+    }
+
+    @Override
+    public AudioRecorder newAudioRecorder(int samplingRate, boolean isMono) {
+        return audio.newAudioRecorder(samplingRate, isMono);
+    }
+
+    @Override
+    public Sound newSound(FileHandle file) {
+        return track(Sound.class, audio.newSound(file), liveSounds);
+    }
+
+    @Override
+    public Music newMusic(FileHandle file) {
+        return track(Music.class, audio.newMusic(file), liveMusic);
+    }
+
+    int getLiveSounds() {
+        return liveSounds.get();
+    }
+
+    int getLiveMusic() {
+        return liveMusic.get();
+    }
+
+    int getDoubleDisposes() {
+        return doubleDisposes.get();
+    }
+
+    // dispose()の呼び出しを数えるように包む
+    private <T> T track(Class<T> type, final T target, final AtomicInteger live) {
+        live.incrementAndGet();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            private boolean disposed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("dispose") && method.getParameterTypes().length == 0) {
+                    synchronized (this) {
+                        if (disposed) {
+                            doubleDisposes.incrementAndGet();
+                        } else {
+                            disposed = true;
+                            live.decrementAndGet();
+                        }
+                    }
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }));
+    }
+}
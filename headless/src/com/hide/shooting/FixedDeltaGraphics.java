@@ -0,0 +1,37 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Graphics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+// 経過時間(delta time)だけを指定した値に差し替えたGraphics
+// ヘッドレス環境でrender()を直接呼び出す時に、実時間に関係なく一定の時間ずつゲームを進めるために使う
+final class FixedDeltaGraphics implements InvocationHandler {
+
+    private final Graphics graphics;
+    float deltaTime;
+
+    private FixedDeltaGraphics(Graphics graphics, float deltaTime) {
+        this.graphics = graphics;
+        this.deltaTime = deltaTime;
+    }
+
+    static Graphics wrap(Graphics graphics, float deltaTime) {
+        return (Graphics)Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] { Graphics.class },
+                new FixedDeltaGraphics(graphics, deltaTime));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("getDeltaTime") || name.equals("getRawDeltaTime")) return deltaTime;
+        try {
+            return method.invoke(graphics, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
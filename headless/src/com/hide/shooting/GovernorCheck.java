@@ -0,0 +1,90 @@
+package com.hide.shooting;
+
+// FrameGovernorに作った処理時間の列を与えて、段階の変わり方を確かめる
+// 実際の描画は行わないので、端末の速さに関係なく同じ結果になる
+// 変わるたびに段階と平均を出力し、期待どおりでなければ終了コード1で終了する
+//
+//   GovernorCheck [-verbose]
+public class GovernorCheck {
+
+    static final float BUDGET = Shooting.FRAME_BUDGET;
+
+    private static boolean verbose;
+    private static boolean ok = true;
+
+    public static void main(String[] args) {
+        verbose = args.length > 0 && args[0].equals("-verbose");
+
+        // 予算内で動いている間は何もしない
+        FrameGovernor governor = newGovernor();
+        feed(governor, BUDGET * .7f, 600);
+        expect("steady", governor.getLevel() == FrameGovernor.FULL && governor.getChanges() == 0, governor);
+
+        // 1フレームだけ大きく遅れても、平均が予算内なら下げない
+        governor = newGovernor();
+        feed(governor, BUDGET * .7f, 100);
+        feed(governor, BUDGET * 4, 1);
+        feed(governor, BUDGET * .7f, 100);
+        expect("single spike", governor.getLevel() == FrameGovernor.FULL, governor);
+
+        // 予算を超え続けると、平均が入れ替わるのを待ちながら1段階ずつ最後まで下げる
+        governor = newGovernor();
+        int frames = feedUntil(governor, BUDGET * 2, FrameGovernor.MAX_LEVEL, 10000);
+        expect("overload reaches max", governor.getLevel() == FrameGovernor.MAX_LEVEL
+                && frames == FrameGovernor.WINDOW + (FrameGovernor.MAX_LEVEL - 1) * FrameGovernor.DEGRADE_HOLD_FRAMES, governor);
+        expect("overload throttles enemies", governor.throttle() == FrameGovernor.MAX_LEVEL - FrameGovernor.THROTTLE_ENEMIES + 1, governor);
+        feed(governor, BUDGET * 2, 600);
+        expect("overload stays at max", governor.getLevel() == FrameGovernor.MAX_LEVEL, governor);
+
+        // 予算内でも余裕が少なければ戻さない (段階の上げ下げを繰り返さないように)
+        feed(governor, BUDGET * .8f, 1000);
+        expect("no recovery without headroom", governor.getLevel() == FrameGovernor.MAX_LEVEL, governor);
+
+        // 余裕が続けば、1段階ずつ全ての演出に戻る
+        frames = feedUntil(governor, BUDGET * .3f, FrameGovernor.FULL, 10000);
+        expect("recovery", governor.getLevel() == FrameGovernor.FULL && governor.throttle() == 0 && governor.animateExplosions()
+                && frames >= FrameGovernor.MAX_LEVEL * FrameGovernor.RECOVER_HOLD_FRAMES, governor);
+        expect("one step per change", governor.getChanges() == FrameGovernor.MAX_LEVEL * 2, governor);
+
+        // 重くなって1段階下げた結果、予算内に収まればそこで止まる
+        governor = newGovernor();
+        feed(governor, BUDGET * 1.2f, FrameGovernor.WINDOW);
+        feed(governor, BUDGET * .9f, 600);
+        expect("settles after one step", governor.getLevel() == FrameGovernor.CAP_EXPLOSIONS && governor.capExplosions()
+                && governor.backgroundLayers(2) == 2, governor);
+
+        System.out.println(ok ? "OK" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static FrameGovernor newGovernor() {
+        FrameGovernor governor = new FrameGovernor(BUDGET);
+        governor.setListener(new FrameGovernor.Listener() {
+            @Override
+            public void onLevelChanged(FrameGovernor governor, int previous) {
+                if (Math.abs(governor.getLevel() - previous) != 1) ok = false;
+                if (verbose) System.out.println("  " + previous + " -> " + governor);
+            }
+        });
+        return governor;
+    }
+
+    private static void feed(FrameGovernor governor, float frameTime, int frames) {
+        for (int i = 0; i < frames; i++) governor.update(frameTime);
+    }
+
+    // 段階がlevelになるまで与え、与えたフレーム数を返す
+    private static int feedUntil(FrameGovernor governor, float frameTime, int level, int maxFrames) {
+        int frames = 0;
+        while (governor.getLevel() != level && frames < maxFrames) {
+            governor.update(frameTime);
+            frames++;
+        }
+        return frames;
+    }
+
+    private static void expect(String name, boolean condition, FrameGovernor governor) {
+        System.out.println((condition ? "ok   " : "FAIL ") + name + ": " + governor + " changes=" + governor.getChanges());
+        ok &= condition;
+    }
+}
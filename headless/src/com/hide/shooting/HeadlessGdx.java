@@ -0,0 +1,21 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+// ベンチマークやソークテスト用にlibGDXをヘッドレス環境(headless backend)で初期化する
+final class HeadlessGdx {
+
+    private HeadlessGdx() {
+    }
+
+    static synchronized void init() {
+        if (Gdx.app != null) return;
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;     // render()は呼び出さない (呼び出し側のスレッドから直接操作する)
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = NullGL.create();
+    }
+}
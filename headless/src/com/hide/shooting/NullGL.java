@@ -0,0 +1,62 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+// 何も描画しないGL20
+// ヘッドレス環境にはGLがないので、これを差し込んでテクスチャ・シェーダー・SpriteBatchを生成できるようにする
+// (シェーダーのコンパイルとリンクは常に成功したことにする)
+final class NullGL implements InvocationHandler {
+
+    private int handles;            // 生成したGLオブジェクトに割り当てる番号
+    private int liveTextures;       // 生成されて、まだ削除されていないテクスチャの数
+
+    static GL20 create() {
+        return (GL20)Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class }, new NullGL());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            return "NullGL";
+        }
+        if (name.equals("glGenTexture")) {
+            liveTextures++;
+            return ++handles;
+        }
+        if (name.equals("glDeleteTexture")) {
+            liveTextures--;
+            return null;
+        }
+        if (name.startsWith("glGen") || name.startsWith("glCreate")) return ++handles;
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            int pname = (Integer)args[1];
+            if (pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS) ((IntBuffer)args[2]).put(0, 1);
+            return null;
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    // glがNullGLなら、まだ削除されていないテクスチャの数を返す (NullGLでなければ-1)
+    static int liveTextures(GL20 gl) {
+        if (gl == null || !Proxy.isProxyClass(gl.getClass())) return -1;
+        InvocationHandler handler = Proxy.getInvocationHandler(gl);
+        return handler instanceof NullGL ? ((NullGL)handler).liveTextures : -1;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == void.class) return null;
+        if (type == int.class) return 0;
+        if (type == boolean.class) return false;
+        if (type == float.class) return 0f;
+        if (type == String.class) return "";
+        return null;
+    }
+}
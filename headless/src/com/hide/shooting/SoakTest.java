@@ -0,0 +1,229 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Random;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+// ヘッドレス環境で自動操縦のゲームを何回も続けて動かすソークテスト
+// 端末で長く遊んだ後にだけ起きるリーク・遅くなる問題を、PC上で短時間に見つけるために使う
+// セッションごとにShootingを生成して、自動操縦でgames回(ゲームクリアかゲームオーバーでリスタート待ちになるまで)遊び、破棄する
+// 全てのセッションの後に、ティック数・キャラクター数の処理速度、ヒープの最大使用量、GCの停止時間、
+// 破棄されずに残ったテクスチャ・音・スレッドの数を出力する (残っていたら終了コード1で終了する)
+// 読み込みの後にテクスチャの数が変わっていないか(キャラクターの生成ごとにテクスチャを作っていないか)も調べ、
+// 変わっていた場合と、確認に十分な数(MIN_CHECKED_SPAWNS)の敵機・弾を生成しなかった場合は失敗にする
+//
+//   SoakTest [-sessions N] [-games N] [-difficulty NORMAL] [-threads N] [-level waves.json] [-seed N] [-verbose]
+// 作業ディレクトリはassets
+public class SoakTest {
+
+    static final float FRAME_TIME = 1 / 60.f;           // 1フレームの経過時間 (実時間に関係なく最大速度で進める)
+    static final int MAX_FRAMES_PER_GAME = 60 * 60 * 5; // 1ゲームがこのフレーム数で終わらなければ打ち切る
+    static final int HEAP_SAMPLE_INTERVAL = 60;         // ヒープ使用量を調べる間隔 (フレーム数)
+    static final int MIN_CHECKED_SPAWNS = 2000;         // テクスチャの数の確認に意味があると言える、敵機と弾の生成数
+
+    // 自動操縦 (乱数で傾け、時々ビームを撃ち、リスタート待ちになったらリスタートする)
+    static final class Bot {
+
+        final PlayerInput input = new PlayerInput();
+        private final Random random;
+        private int frame;
+        private GameStatus lastStatus = GameStatus.PLAYING;
+        int games;              // 終わったゲームの数 (リスタート待ちになった回数)
+
+        Bot(long seed) {
+            random = new Random(seed);
+        }
+
+        void update(WorldSnapshot snapshot) {
+            // 端末の傾きは0.5秒ごとに変える
+            if (frame++ % 30 == 0) {
+                input.accelX = random.nextFloat() * 8 - 4;
+                input.accelY = random.nextFloat() * 8 - 4;
+            }
+            if (random.nextInt(10) == 0) input.fire++;
+            GameStatus status = snapshot.status;
+            if (status != lastStatus && (status == GameStatus.WAIT_TO_RESTART_FROM_WIN || status == GameStatus.WAIT_TO_RESTART_FROM_LOSE)) games++;
+            lastStatus = status;
+            input.touched = status == GameStatus.WAIT_TO_RESTART_FROM_LOSE;
+            input.restart = status == GameStatus.WAIT_TO_RESTART_FROM_WIN;
+        }
+    }
+
+    // GCによる停止時間を通知から集計する
+    static final class GcMonitor implements NotificationListener {
+
+        long pauses;
+        long totalMillis;
+        long maxMillis;
+
+        void install() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter) ((NotificationEmitter)bean).addNotificationListener(this, null, null);
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            pauses++;
+            totalMillis += duration;
+            maxMillis = Math.max(maxMillis, duration);
+        }
+    }
+
+    public static void main(String[] args) {
+        int sessions = 5;
+        int games = 8;
+        Difficulty difficulty = Difficulty.NORMAL;
+        int threads = 1;
+        String level = null;
+        long seed = 1;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-verbose")) {
+                verbose = true;
+                continue;
+            }
+            if (i + 1 >= args.length) usage();
+            String value = args[++i];
+            if (arg.equals("-sessions")) sessions = Integer.parseInt(value);
+            else if (arg.equals("-games")) games = Integer.parseInt(value);
+            else if (arg.equals("-difficulty")) difficulty = Difficulty.valueOf(value);
+            else if (arg.equals("-threads")) threads = Integer.parseInt(value);
+            else if (arg.equals("-level")) level = value;
+            else if (arg.equals("-seed")) seed = Long.parseLong(value);
+            else usage();
+        }
+
+        HeadlessGdx.init();
+        if (!verbose) Gdx.app.setLogLevel(Application.LOG_ERROR);   // ゲームのログ(プールの統計など)を出さない
+        Gdx.graphics = FixedDeltaGraphics.wrap(Gdx.graphics, FRAME_TIME);
+        CountingAudio audio = new CountingAudio(Gdx.audio);
+        Gdx.audio = audio;
+        GcMonitor gc = new GcMonitor();
+        gc.install();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int baseThreads = Thread.activeCount();
+
+        long totalTicks = 0;
+        long totalEntities = 0;     // ティックごとのキャラクター数の合計 (更新したキャラクターの延べ数)
+        long totalFrames = 0;
+        long peakHeap = 0;
+        long simulationNanos = 0;   // 読み込みを除いた、ゲームを動かしていた時間
+        long totalSpawns = 0;       // 敵機と弾を生成した数
+        boolean texturesConstant = true;
+        boolean ok = true;
+        long start = System.nanoTime();
+        for (int session = 0; session < sessions; session++) {
+            Shooting game = new Shooting(difficulty, seed + session);
+            game.setThreads(threads);
+            if (level != null) game.setLevel(level);
+            Bot bot = new Bot(seed + session);
+            game.setInputSource(bot.input);
+            game.create();
+            while (game.getSnapshot() == null) game.render();      // 読み込みが終わるまで進める
+            // 読み込みが終わった時点のテクスチャの数 (素材の数と、GL上で生成されたテクスチャの数)
+            int loadedTextures = game.getTextureCount();
+            int loadedGlTextures = NullGL.liveTextures(Gdx.gl);
+
+            long sessionStart = System.nanoTime();
+            long lastTick = game.getSnapshot().tick;
+            int frames = 0;
+            while (bot.games < games && frames < MAX_FRAMES_PER_GAME * games) {
+                WorldSnapshot snapshot = game.getSnapshot();
+                bot.update(snapshot);
+                game.render();
+                frames++;
+                snapshot = game.getSnapshot();
+                long ticks = snapshot.tick - lastTick;
+                lastTick = snapshot.tick;
+                totalTicks += ticks;
+                totalEntities += ticks * (snapshot.enemyCount + snapshot.projectileCount + (snapshot.playerAlive ? 1 : 0));
+                if (frames % HEAP_SAMPLE_INTERVAL == 0) peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            }
+            simulationNanos += System.nanoTime() - sessionStart;
+            totalFrames += frames;
+            long startup = game.getPlayableMillis();
+            boolean texturesChanged = game.getTextureCount() != loadedTextures || NullGL.liveTextures(Gdx.gl) != loadedGlTextures;
+            String textureChange = loadedGlTextures + "->" + NullGL.liveTextures(Gdx.gl);
+            game.dispose();
+            // 生成数は、更新用のスレッドが止まった後に読む
+            World world = game.getWorld();
+            int spawns = world.enemies.getHits() + world.enemies.getMisses() + world.projectiles.getSpawned();
+            totalSpawns += spawns;
+            texturesConstant &= !texturesChanged;
+
+            // 破棄した後に残っているものを調べる
+            System.gc();
+            long retained = memory.getHeapMemoryUsage().getUsed();
+            int textures = NullGL.liveTextures(Gdx.gl);
+            int liveThreads = settleThreads(baseThreads);
+            boolean leaked = textures != 0 || audio.getLiveSounds() != 0 || audio.getLiveMusic() != 0 || liveThreads > 0;
+            ok &= !leaked && !texturesChanged && bot.games >= games;
+            System.out.printf("session %d: games=%d frames=%d spawns=%d startup=%dms retained=%.1fMB gl textures in game=%s textures=%d sounds=%d music=%d threads=%+d%s%n",
+                    session + 1, bot.games, frames, spawns, startup, retained / 1048576.0, textureChange, textures, audio.getLiveSounds(), audio.getLiveMusic(),
+                    liveThreads, leaked ? " LEAK" : texturesChanged ? " TEXTURES CHANGED" : bot.games < games ? " TIMEOUT" : "");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double running = simulationNanos / 1e9;
+
+        System.out.printf("sessions=%d games/session=%d difficulty=%s threads=%d level=%s time=%.1fs%n",
+                sessions, games, difficulty, threads, level == null ? "-" : level, seconds);
+        System.out.printf("throughput: %.0f ticks/s, %.0f entities/s, %.0f frames/s%n",
+                totalTicks / running, totalEntities / running, totalFrames / running);
+        System.out.printf("peak heap: %.1fMB%n", peakHeap / 1048576.0);
+        synchronized (gc) {
+            System.out.printf("gc (%s): %d pauses, total %dms, max %dms%n", collectors(), gc.pauses, gc.totalMillis, gc.maxMillis);
+        }
+        System.out.printf("texture count: %s over %d spawns%s%n", texturesConstant ? "constant" : "CHANGED", totalSpawns,
+                totalSpawns < MIN_CHECKED_SPAWNS ? " (fewer than " + MIN_CHECKED_SPAWNS + "; run more sessions or games)" : "");
+        ok &= totalSpawns >= MIN_CHECKED_SPAWNS;
+        System.out.printf("leaks: textures=%d sounds=%d music=%d double disposes=%d%n",
+                NullGL.liveTextures(Gdx.gl), audio.getLiveSounds(), audio.getLiveMusic(), audio.getDoubleDisposes());
+        System.out.println(ok ? "OK" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // 破棄したスレッドが終わるのを少しだけ待ち、基準より増えているスレッドの数を返す
+    private static int settleThreads(int baseThreads) {
+        for (int i = 0; i < 100 && Thread.activeCount() > baseThreads; i++) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        return Thread.activeCount() - baseThreads;
+    }
+
+    private static void usage() {
+        System.err.println("usage: SoakTest [-sessions N] [-games N] [-difficulty NORMAL] [-threads N] [-level waves.json] [-seed N] [-verbose]");
+        System.exit(2);
+    }
+
+    // ガベージコレクタの名前
+    static String collectors() {
+        StringBuilder names = new StringBuilder();
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        for (int i = 0; i < beans.size(); i++) {
+            if (i > 0) names.append(", ");
+            names.append(beans.get(i).getName());
+        }
+        return names.toString();
+    }
+}
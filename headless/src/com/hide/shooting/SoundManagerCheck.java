@@ -0,0 +1,164 @@
+package com.hide.shooting;
+
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.audio.AudioDevice;
+import com.badlogic.gdx.audio.AudioRecorder;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+// SoundManagerの再生の規則を、偽のAudioと手で進める時計(update())で確かめる
+// 効果音ごとのボイス数の上限・連続再生の間隔・優先度による横取り・距離による省略が、それぞれ決まった回数(統計)に数えられるかを調べる
+// 端末も音声ファイルも使わない。期待どおりでなければ終了コード1で終了する
+//
+//   SoundManagerCheck
+public class SoundManagerCheck {
+
+    private static boolean ok = true;
+
+    // 偽のSoundを返すだけのAudio (ファイルは読まない)
+    static final class FakeAudio implements Audio {
+
+        int sounds;
+
+        @Override
+        public AudioDevice newAudioDevice(int samplingRate, boolean isMono) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AudioRecorder newAudioRecorder(int samplingRate, boolean isMono) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Sound newSound(FileHandle file) {
+            sounds++;
+            return fakeSound();
+        }
+
+        @Override
+        public Music newMusic(FileHandle file) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // play()は通し番号のidを返し(failingなら-1)、stop(id)の回数を数える偽のSound
+    static final class FakeSound implements InvocationHandler {
+
+        private long nextId = 1;
+        int plays;
+        int stops;
+        boolean failing;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if (name.equals("play")) {
+                if (failing) return -1L;
+                plays++;
+                return nextId++;
+            }
+            if (name.equals("stop") && args != null && args.length == 1) stops++;
+            if (method.getReturnType() == long.class) return 0L;
+            return null;
+        }
+    }
+
+    private static Sound fakeSound() {
+        return (Sound)Proxy.newProxyInstance(Sound.class.getClassLoader(), new Class<?>[] { Sound.class }, new FakeSound());
+    }
+
+    private static FakeSound fake(SoundManager.Effect effect) {
+        return (FakeSound)Proxy.getInvocationHandler(effect.sound);
+    }
+
+    public static void main(String[] args) {
+        // 効果音ごとのボイス数の上限: 上限を超えた再生は、同じ効果音の一番古いボイスを止めて(stolen)鳴らす
+        FakeAudio audio = new FakeAudio();
+        SoundManager sounds = new SoundManager(audio, 8);
+        SoundManager.Effect beam = sounds.load(new FileHandle("beam.wav"), 1, 2, 0, 1);
+        expect("load uses the Audio backend", audio.sounds == 1);
+        beam.play();
+        sounds.update(.1f);
+        beam.play();
+        sounds.update(.1f);
+        beam.play();
+        expect("per-sound cap steals its own oldest voice", beam.played == 3 && beam.stolen == 1 && fake(beam).stops == 1
+                && sounds.getActiveVoices() == 2, beam);
+        sounds.update(1);
+        expect("voices end after their duration", sounds.getActiveVoices() == 0);
+
+        // 連続再生の間隔: minIntervalが経つまでの再生はthrottledに数え、経った後は鳴らす
+        sounds = new SoundManager(new FakeAudio(), 8);
+        SoundManager.Effect tap = sounds.add("tap", fakeSound(), .1f, 4, .05f, 1);
+        tap.play();
+        sounds.update(.02f);
+        tap.play();
+        sounds.update(.02f);
+        tap.play();
+        sounds.update(.02f);
+        tap.play();
+        expect("retrigger inside the interval is throttled", tap.played == 2 && tap.throttled == 2 && tap.stolen == 0, tap);
+
+        // 優先度: 全体の上限に達したら、優先度が一番低く古いボイスを止めて(stolen)鳴らす
+        sounds = new SoundManager(new FakeAudio(), 3);
+        SoundManager.Effect low = sounds.add("low", fakeSound(), 5, 3, 0, 0);
+        SoundManager.Effect high = sounds.add("high", fakeSound(), 5, 3, 0, 5);
+        SoundManager.Effect mid = sounds.add("mid", fakeSound(), 5, 3, 0, 2);
+        low.play();
+        sounds.update(.1f);
+        low.play();
+        sounds.update(.1f);
+        high.play();
+        sounds.update(.1f);
+        mid.play();     // 一番古いlowを止める
+        expect("priority steals the lowest, oldest voice", mid.played == 1 && low.stolen == 1 && high.stolen == 0
+                && fake(low).stops == 1, low);
+        mid.play();     // 残りのlowを止める
+        expect("priority steals the remaining low voice", low.stolen == 2 && mid.stolen == 0, low);
+        low.play();     // 優先度が低い音は、優先度が高いボイスを止めない
+        expect("lower priority is dropped when all voices rank higher", low.dropped == 1 && high.stolen == 0 && mid.stolen == 0
+                && sounds.getActiveVoices() == 3, low);
+        sounds.update(.1f);
+        mid.play();     // 同じ優先度なら一番古いボイスを止める
+        expect("equal priority steals the oldest", mid.stolen == 1 && mid.played == 3 && high.stolen == 0, mid);
+
+        // 距離: 聞き手から遠くて音量がMIN_VOLUME未満になる音はculledに数え、ボイスを使わない
+        sounds = new SoundManager(new FakeAudio(), 4);
+        SoundManager.Effect enemy = sounds.add("enemy", fakeSound(), 1, 4, 0, 1);
+        sounds.setListener(0, 0, 1000);
+        enemy.play(100, 0);
+        enemy.play(0, 990);
+        enemy.play(2000, 0);
+        expect("distant sounds are culled", enemy.played == 1 && enemy.culled == 2 && fake(enemy).plays == 1
+                && sounds.getActiveVoices() == 1, enemy);
+        expect("culled and throttled plays count as dropped plays", sounds.getDroppedPlays() == 2);
+
+        // 端末側で再生できなかった音はdroppedに数え、ボイスを空けておく
+        fake(enemy).failing = true;
+        enemy.play(0, 0);
+        expect("backend failure is dropped", enemy.dropped == 1 && sounds.getActiveVoices() == 1, enemy);
+
+        // 破棄: 鳴っているボイスを全て手放す
+        sounds.dispose();
+        expect("dispose clears voices", sounds.getActiveVoices() == 0);
+
+        System.out.println(ok ? "OK" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static void expect(String name, boolean condition) {
+        System.out.println((condition ? "ok   " : "FAIL ") + name);
+        ok &= condition;
+    }
+
+    private static void expect(String name, boolean condition, SoundManager.Effect effect) {
+        System.out.println((condition ? "ok   " : "FAIL ") + name + ": " + effect);
+        ok &= condition;
+    }
+}